@@ -0,0 +1,34 @@
+/*
+ * Char Sequence Source: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: SourceBuffer over a source program that is already in memory (String, StringBuilder, ...).
+ */
+
+package ADT;
+
+/* --------------------------------
+ * -- CHAR SEQUENCE SOURCE CLASS --
+ * -------------------------------- */
+public class CharSequenceSource extends SourceBuffer {
+
+    // elements
+    CharSequence text;
+
+    // constructor
+    public CharSequenceSource(CharSequence inputText) {
+        text = inputText;
+    }
+
+    public long length() {
+        return text.length();
+    }
+
+    public char charAt(long pos) {
+        return text.charAt((int) pos);
+    }
+
+    public String substring(long start, long end) {
+        return text.subSequence((int) start, (int) end).toString();
+    }
+}
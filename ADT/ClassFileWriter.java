@@ -0,0 +1,168 @@
+/*
+ * Class File Writer: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Just enough of the JVM class file format to build the classes QuadCompiler makes: a
+ *          constant pool (UTF-8 strings, classes, name-and-types, method refs and ints), methods with
+ *          a Code attribute, and the bytes of the whole class. No fields, no exception tables and no
+ *          other attributes.
+ *          Classes are written as version 49 (Java 5), the last version the JVM checks with the
+ *          verifier that works out types itself, so no stack map frames have to be computed.
+ */
+
+package ADT;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/* --------------------------------
+ * --- CLASS FILE WRITER CLASS  ---
+ * -------------------------------- */
+public class ClassFileWriter {
+
+    // constants
+    static final int MAGIC = 0xCAFEBABE;
+    static final int VERSION = 49;
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    // elements
+    ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    DataOutputStream pool = new DataOutputStream(poolBytes);
+    int poolCount = 1;                                      // entry 0 is never used
+    HashMap<String, Integer> entries = new HashMap<>();     // entry already in the pool, by kind and value
+    ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    DataOutputStream methods = new DataOutputStream(methodBytes);
+    int methodCount = 0;
+    int thisClass;
+    int superClass;
+    int[] interfaces;
+
+    // constructor - a public final class [name] (internal form, a/b/C) extending [superName]
+    public ClassFileWriter(String name, String superName, String... interfaceNames) {
+        thisClass = classRef(name);
+        superClass = classRef(superName);
+        interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    /* -----------------------------
+     * Constant pool entries, each added once; the index is returned
+     * -------------------------- */
+    int utf8(String text) {
+        Integer found = entries.get("U" + text);
+        if (found != null) {
+            return found;
+        }
+        try {
+            pool.writeByte(1);
+            pool.writeUTF(text);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);     // cannot happen writing to memory
+        }
+        return added("U" + text);
+    }
+
+    int classRef(String name) {
+        return entry("C" + name, 7, utf8(name), -1);
+    }
+
+    int nameAndType(String name, String descriptor) {
+        return entry("N" + name + ' ' + descriptor, 12, utf8(name), utf8(descriptor));
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return entry("M" + owner + '.' + name + descriptor, 10, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    int integer(int value) {
+        Integer found = entries.get("I" + value);
+        if (found != null) {
+            return found;
+        }
+        try {
+            pool.writeByte(3);
+            pool.writeInt(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return added("I" + value);
+    }
+
+    // Adds a method with [code] as its body. Its operand stack is at most [maxStack] deep and it uses
+    // [maxLocals] local slots, its parameters (and this) included.
+    void addMethod(int access, String name, String descriptor, int maxStack, int maxLocals, byte[] code, int codeLength) {
+        try {
+            methods.writeShort(access);
+            methods.writeShort(utf8(name));
+            methods.writeShort(utf8(descriptor));
+            methods.writeShort(1);                  // attributes: Code
+            methods.writeShort(utf8("Code"));
+            methods.writeInt(12 + codeLength);
+            methods.writeShort(maxStack);
+            methods.writeShort(maxLocals);
+            methods.writeInt(codeLength);
+            methods.write(code, 0, codeLength);
+            methods.writeShort(0);                  // exception table
+            methods.writeShort(0);                  // attributes of Code
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        methodCount++;
+    }
+
+    // the class file
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int index : interfaces) {
+                out.writeShort(index);
+            }
+            out.writeShort(0);                      // fields
+            out.writeShort(methodCount);
+            methodBytes.writeTo(out);
+            out.writeShort(0);                      // attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // an entry of [tag] that refers to one or two other entries
+    private int entry(String key, int tag, int first, int second) {
+        Integer found = entries.get(key);
+        if (found != null) {
+            return found;
+        }
+        try {
+            pool.writeByte(tag);
+            pool.writeShort(first);
+            if (second >= 0) {
+                pool.writeShort(second);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return added(key);
+    }
+
+    private int added(String key) {
+        entries.put(key, poolCount);
+        return poolCount++;
+    }
+}
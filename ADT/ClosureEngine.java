@@ -0,0 +1,206 @@
+/*
+ * Closure Engine: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Second way for the Interpreter to run quads (Interpreter.Engine.CLOSURE). Before the run
+ *          the quads are translated once into a graph of instruction objects, one per quad, each
+ *          made for its op code with its symbol rows and the symbol columns bound in, and linked to
+ *          the instruction that follows it and (for a branch) the one it jumps to. Running is then
+ *          following the links: no op code is looked at and no operand is decoded while it runs.
+ *          Output (console, trace file and symbol values) is the same as the switch interpreter's.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ----- CLOSURE ENGINE CLASS  ----
+ * -------------------------------- */
+public class ClosureEngine {
+
+    // elements
+    Interpreter interp;     // started run whose symbols, trace file and messages the nodes use
+    Node[] nodes;           // node for each quad, by quad number
+
+    // Translates the first [count] quads of [code] (packed as in QuadTable) for [interp], which must
+    // have been started on the symbol table they will run against. Op codes must already be valid.
+    ClosureEngine(Interpreter interp, int[] code, int count) {
+        this.interp = interp;
+        nodes = new Node[count];
+        for (int pc = 0; pc < count; pc++) {
+            int base = pc * QuadTable.QUAD_WIDTH;
+            nodes[pc] = make(pc, code[base], code[base + 1], code[base + 2], code[base + 3]);
+        }
+        for (Node node : nodes) {
+            node.next = at(node.pc + 1);
+            node.target = at(node.op3);
+        }
+    }
+
+    // Runs from the first quad until a STOP or a jump out of the quads. False after an error
+    // (already reported), when the interpreter's footer should not be written.
+    boolean run() {
+        Node node = at(0);
+        try {
+            if (interp.traceOn) {
+                while (node != null) {
+                    interp.trace(node.pc, node.opcode, node.op1, node.op2, node.op3);
+                    node = node.run();
+                }
+            } else {
+                while (node != null) {
+                    node = node.run();
+                }
+            }
+
+        // ERROR CASE: an operand that is not a symbol row (node is the quad that failed)
+        } catch (ArrayIndexOutOfBoundsException e) {
+            interp.indexError(node.pc);
+            return false;
+        }
+        return true;
+    }
+
+    // node for quad [pc], null past either end (running off the quads ends the program)
+    Node at(int pc) {
+        return ((pc >= 0) && (pc < nodes.length)) ? nodes[pc] : null;
+    }
+
+    // the node that runs one quad
+    private Node make(int pc, int opcode, int op1, int op2, int op3) {
+        int[] values = interp.values;
+        byte[] types = interp.types;
+        switch (opcode) {
+            case Interpreter.DIV:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        values[op3] = values[op1] / values[op2];
+                        types[op3] = 'I';
+                        return next;
+                    }
+                };
+            case Interpreter.MUL:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        values[op3] = values[op1] * values[op2];
+                        types[op3] = 'I';
+                        return next;
+                    }
+                };
+            case Interpreter.SUB:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        values[op3] = values[op1] - values[op2];
+                        types[op3] = 'I';
+                        return next;
+                    }
+                };
+            case Interpreter.ADD:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        values[op3] = values[op1] + values[op2];
+                        types[op3] = 'I';
+                        return next;
+                    }
+                };
+            case Interpreter.MOV:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        values[op3] = values[op1];
+                        types[op3] = 'I';
+                        return next;
+                    }
+                };
+            case Interpreter.PRINT:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        interp.print(op3);
+                        return next;
+                    }
+                };
+            case Interpreter.READ:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        interp.read(op3);
+                        return next;
+                    }
+                };
+            case Interpreter.JMP:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return target;
+                    }
+                };
+            case Interpreter.JZ:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return (values[op1] == 0) ? target : next;
+                    }
+                };
+            case Interpreter.JP:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return (values[op1] > 0) ? target : next;
+                    }
+                };
+            case Interpreter.JN:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return (values[op1] < 0) ? target : next;
+                    }
+                };
+            case Interpreter.JNZ:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return (values[op1] != 0) ? target : next;
+                    }
+                };
+            case Interpreter.JNP:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return (values[op1] <= 0) ? target : next;
+                    }
+                };
+            case Interpreter.JNN:
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return (values[op1] >= 0) ? target : next;
+                    }
+                };
+            case Interpreter.JINDR:
+                // the one jump whose target is only known when it runs
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        return at(values[op3]);
+                    }
+                };
+            default:
+                // STOP (the only op code left once they have been checked)
+                return new Node(pc, opcode, op1, op2, op3) {
+                    Node run() {
+                        interp.stop();
+                        return null;
+                    }
+                };
+        }
+    }
+
+    /* ------------------------------------------
+     * One quad, ready to run
+     * --------------------------------------- */
+    abstract static class Node {
+        final int pc, opcode, op1, op2, op3;    // the quad, for traces and error messages
+        Node next;                              // the quad after this one
+        Node target;                            // the quad op3 names, for a branch
+
+        Node(int pc, int opcode, int op1, int op2, int op3) {
+            this.pc = pc;
+            this.opcode = opcode;
+            this.op1 = op1;
+            this.op2 = op2;
+            this.op3 = op3;
+        }
+
+        // does the quad's work and returns the node to run next, null to end the program
+        abstract Node run();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Compact Quads: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Read-only, variable-length encoding of a filled quad table for the interpreter to run from.
+ *          Most quads leave operands at 0 (JMP only uses op3, STOP none) and most operands are small
+ *          symbol indexes, so each quad is stored as a format byte and then only the fields that are
+ *          not 0, each in 1, 2 or 4 bytes:
+ *              format bits 0-1 opcode, 2-3 op1, 4-5 op2, 6-7 op3:
+ *              0 = field is 0 (no bytes), 1 = 1 byte (1..255), 2 = 2 bytes (..65535), 3 = 4 bytes (any int)
+ *          Multi-byte fields are big-endian. Jumps name quad numbers, so the byte offset of every 16th
+ *          quad is kept and a jump target is found from the nearest one before it by skipping at most
+ *          15 quads, using each format byte's encoded length.
+ */
+
+package ADT;
+
+import java.util.Arrays;
+
+/* --------------------------------
+ * ----- COMPACT QUADS CLASS  -----
+ * -------------------------------- */
+public class CompactQuads {
+
+    // constants
+    static final int BLOCK = 16;                        // quads per entry of the offset index
+    static final int[] WIDTH = {0, 1, 2, 4};            // bytes in a field of each kind
+    static final byte[] LENGTH = initLengths();         // bytes in a quad given its format byte
+
+    // elements
+    byte[] code;            // encoded quads, back to back
+    int size;               // bytes of code in use
+    int[] blockOffsets;     // offset of quad i * BLOCK
+    int quadCount;
+
+    // constructor - encodes the quads of [table] as they are now (later changes to it are not seen)
+    public CompactQuads(QuadTable table) {
+        quadCount = table.NextQuad();
+        code = new byte[Math.max(16, quadCount * 6)];
+        blockOffsets = new int[(quadCount + BLOCK - 1) / BLOCK];
+        size = 0;
+        int[] quads = table.quads;
+        for (int i = 0; i < quadCount; i++) {
+            if (i % BLOCK == 0) {
+                blockOffsets[i / BLOCK] = size;
+            }
+            if (size + 17 > code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+            int base = i * QuadTable.QUAD_WIDTH;
+            int formatAt = size++;
+            int format = 0;
+            for (int field = 0; field < QuadTable.QUAD_WIDTH; field++) {
+                int kind = kindOf(quads[base + field]);
+                format |= kind << (field * 2);
+                write(quads[base + field], kind);
+            }
+            code[formatAt] = (byte) format;
+        }
+        code = Arrays.copyOf(code, size);
+    }
+
+    // number of quads
+    public int Count() {
+        return quadCount;
+    }
+
+    // bytes taken by the encoded quads and their offset index
+    public int Size() {
+        return size + (blockOffsets.length * 4);
+    }
+
+    // Decodes the quad at byte [offset] into [quad] (opcode, op1, op2, op3) and returns the offset of
+    // the quad after it, so a run of quads is read without looking anything up.
+    public int Decode(int offset, int[] quad) {
+        int format = code[offset++] & 0xFF;
+        int kind = format & 3;
+        quad[0] = read(offset, kind);
+        offset += WIDTH[kind];
+        kind = (format >>> 2) & 3;
+        quad[1] = read(offset, kind);
+        offset += WIDTH[kind];
+        kind = (format >>> 4) & 3;
+        quad[2] = read(offset, kind);
+        offset += WIDTH[kind];
+        kind = format >>> 6;
+        quad[3] = read(offset, kind);
+        return offset + WIDTH[kind];
+    }
+
+    // byte offset of quad [index]
+    public int OffsetOf(int index) {
+        int offset = blockOffsets[index / BLOCK];
+        for (int i = index % BLOCK; i > 0; i--) {
+            offset += LENGTH[code[offset] & 0xFF];
+        }
+        return offset;
+    }
+
+    // same as QuadTable.GetQuad(index, quad), false if there is no such quad
+    public boolean GetQuad(int index, int[] quad) {
+        if ((index < 0) || (index >= quadCount)) {
+            System.out.println("An error occurred. Given index in GetQuad is outside the compact quads!");
+            return false;
+        }
+        Decode(OffsetOf(index), quad);
+        return true;
+    }
+
+    // smallest field kind that holds [value]
+    private static int kindOf(int value) {
+        if (value == 0) {
+            return 0;
+        } else if ((value > 0) && (value <= 0xFF)) {
+            return 1;
+        } else if ((value > 0) && (value <= 0xFFFF)) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private void write(int value, int kind) {
+        switch (kind) {
+            case 1:
+                code[size++] = (byte) value;
+                break;
+            case 2:
+                code[size++] = (byte) (value >>> 8);
+                code[size++] = (byte) value;
+                break;
+            case 3:
+                code[size++] = (byte) (value >>> 24);
+                code[size++] = (byte) (value >>> 16);
+                code[size++] = (byte) (value >>> 8);
+                code[size++] = (byte) value;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private int read(int offset, int kind) {
+        switch (kind) {
+            case 0:
+                return 0;
+            case 1:
+                return code[offset] & 0xFF;
+            case 2:
+                return ((code[offset] & 0xFF) << 8) | (code[offset + 1] & 0xFF);
+            default:
+                return (code[offset] << 24) | ((code[offset + 1] & 0xFF) << 16)
+                        | ((code[offset + 2] & 0xFF) << 8) | (code[offset + 3] & 0xFF);
+        }
+    }
+
+    private static byte[] initLengths() {
+        byte[] lengths = new byte[256];
+        for (int format = 0; format < 256; format++) {
+            int length = 1;
+            for (int field = 0; field < 4; field++) {
+                length += WIDTH[(format >>> (field * 2)) & 3];
+            }
+            lengths[format] = (byte) length;
+        }
+        return lengths;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Constant Pool: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Index from a constant's (data type, value) to its Symbol table row, so a value is kept
+ *          once however it is written ("1" and "01", "1.5" and "15E-1"). The values themselves stay
+ *          in the table's columns; this only holds rows, hashed on their value. Open addressing over
+ *          a power of two number of slots, kept at most half full.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ----- CONSTANT POOL CLASS  -----
+ * -------------------------------- */
+public class ConstantPool {
+
+    // elements
+    SymbolTable table;      // holds the values the rows point at
+    int elementCount;
+    int mask;
+    int[] rows;             // row in each slot, -1 if the slot is empty
+    int[] hashes;           // hash of the value in the same slot
+    int notFound = -1;
+
+    // constructor - sized for about [expected] constants before it has to grow
+    public ConstantPool(SymbolTable table, int expected) {
+        this.table = table;
+        int size = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) * 2;
+        mask = size - 1;
+        rows = new int[size];
+        hashes = new int[size];
+        java.util.Arrays.fill(rows, notFound);
+        elementCount = 0;
+    }
+
+    // look up the [row] holding the integer [value] (-1 if dne)
+    public int FindInteger(int value) {
+        int hash = hash('I', value);
+        for (int slot = hash & mask; rows[slot] != notFound; slot = (slot + 1) & mask) {
+            int row = rows[slot];
+            if ((hashes[slot] == hash) && (table.types[row] == 'I') && (table.integers[row] == value)) {
+                return row;
+            }
+        }
+        return notFound;
+    }
+
+    // look up the [row] holding the float [value] (-1 if dne), matched bit for bit
+    public int FindFloat(double value) {
+        long bits = Double.doubleToLongBits(value);
+        int hash = hash('F', bits);
+        for (int slot = hash & mask; rows[slot] != notFound; slot = (slot + 1) & mask) {
+            int row = rows[slot];
+            if ((hashes[slot] == hash) && (table.types[row] == 'F')
+                    && (Double.doubleToLongBits(table.floats[row]) == bits)) {
+                return row;
+            }
+        }
+        return notFound;
+    }
+
+    // look up the [row] holding the string [value] (-1 if dne), matched exactly
+    public int FindString(CharSequence value) {
+        int hash = hash(value);
+        for (int slot = hash & mask; rows[slot] != notFound; slot = (slot + 1) & mask) {
+            int row = rows[slot];
+            if ((hashes[slot] == hash) && (table.types[row] == 'S') && contentEquals(table.strings[row], value)) {
+                return row;
+            }
+        }
+        return notFound;
+    }
+
+    // adds [row], whose value must already be in the table and not yet in the pool
+    public void Add(int row) {
+        int hash;
+        switch (table.types[row]) {
+            case 'I':
+                hash = hash('I', table.integers[row]);
+                break;
+            case 'F':
+                hash = hash('F', Double.doubleToLongBits(table.floats[row]));
+                break;
+            default:
+                hash = hash(table.strings[row]);
+        }
+        place(row, hash);
+        elementCount++;
+        if (elementCount * 2 > rows.length) {
+            grow();
+        }
+    }
+
+    // true if [row] is a pooled constant
+    public boolean Contains(int row) {
+        switch (table.types[row]) {
+            case 'I':
+                return FindInteger(table.integers[row]) == row;
+            case 'F':
+                return FindFloat(table.floats[row]) == row;
+            case 'S':
+                return (table.strings[row] != null) && (FindString(table.strings[row]) == row);
+            default:
+                return false;
+        }
+    }
+
+    // number of constants held
+    public int Count() {
+        return elementCount;
+    }
+
+    private static int hash(char type, long bits) {
+        long h = (bits ^ type) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int hash(CharSequence value) {
+        int h = 'S';
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean contentEquals(String stored, CharSequence value) {
+        if ((stored == null) || (stored.length() != value.length())) {
+            return false;
+        }
+        for (int i = 0; i < stored.length(); i++) {
+            if (stored.charAt(i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // puts [row] in the first free slot for [hash]
+    private void place(int row, int hash) {
+        int slot = hash & mask;
+        while (rows[slot] != notFound) {
+            slot = (slot + 1) & mask;
+        }
+        rows[slot] = row;
+        hashes[slot] = hash;
+    }
+
+    // doubles the slots and places every row again
+    private void grow() {
+        int[] oldRows = rows;
+        int[] oldHashes = hashes;
+        mask = oldRows.length * 2 - 1;
+        rows = new int[oldRows.length * 2];
+        hashes = new int[rows.length];
+        java.util.Arrays.fill(rows, notFound);
+        for (int i = 0; i < oldRows.length; i++) {
+            if (oldRows[i] != notFound) {
+                place(oldRows[i], oldHashes[i]);
+            }
+        }
+    }
+}
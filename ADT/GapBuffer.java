@@ -0,0 +1,106 @@
+/*
+ * Gap Buffer: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Editable SourceBuffer for the incremental lexer. The text is kept in one array with a
+ *          gap at the last edit, so an edit only moves the text between it and the previous edit
+ *          instead of everything after it.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ------ GAP BUFFER CLASS  -------
+ * -------------------------------- */
+public class GapBuffer extends SourceBuffer {
+
+    // elements
+    char[] text;
+    int gapStart;       // first free slot
+    int gapEnd;         // first char after the gap
+
+    // constructor
+    public GapBuffer(CharSequence inputText) {
+        text = new char[Math.max(16, inputText.length() * 2)];
+        gapStart = 0;
+        gapEnd = text.length;
+        Replace(0, 0, inputText);
+    }
+
+    public long length() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    public char charAt(long pos) {
+        return (pos < gapStart) ? text[(int) pos] : text[(int) pos + (gapEnd - gapStart)];
+    }
+
+    // bulk copy of the parts either side of the gap
+    public String substring(long start, long end) {
+        int from = (int) start;
+        int to = (int) end;
+        if (to <= gapStart) {
+            return new String(text, from, to - from);
+        }
+        int gap = gapEnd - gapStart;
+        if (from >= gapStart) {
+            return new String(text, from + gap, to - from);
+        }
+        StringBuilder result = new StringBuilder(to - from);
+        result.append(text, from, gapStart - from);
+        result.append(text, gapEnd, to - gapStart);
+        return result.toString();
+    }
+
+    // straight over the array, either side of the gap
+    public long indexOfLineEndOr(long from, char target) {
+        int gap = gapEnd - gapStart;
+        int end = text.length - gap;
+        for (int i = (int) from; i < end; i++) {
+            char ch = (i < gapStart) ? text[i] : text[i + gap];
+            if ((ch == target) || (ch == '\n') || (ch == '\r')) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // replaces [removed] chars at [offset] with [inserted]
+    public void Replace(int offset, int removed, CharSequence inserted) {
+        moveGap(offset);
+        gapEnd += removed;
+        int size = inserted.length();
+        if (gapEnd - gapStart < size) {
+            grow(size);
+        }
+        for (int i = 0; i < size; i++) {
+            text[gapStart + i] = inserted.charAt(i);
+        }
+        gapStart += size;
+    }
+
+    // moves the gap to start at [pos], shifting only the text between the old and new place
+    private void moveGap(int pos) {
+        if (pos < gapStart) {
+            int count = gapStart - pos;
+            System.arraycopy(text, pos, text, gapEnd - count, count);
+            gapStart = pos;
+            gapEnd -= count;
+        } else if (pos > gapStart) {
+            int count = pos - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, count);
+            gapStart = pos;
+            gapEnd += count;
+        }
+    }
+
+    // makes the gap at least [size] chars wide, the array doubles
+    private void grow(int size) {
+        int tail = text.length - gapEnd;
+        char[] bigger = new char[Math.max(text.length * 2, text.length + size)];
+        System.arraycopy(text, 0, bigger, 0, gapStart);
+        System.arraycopy(text, gapEnd, bigger, bigger.length - tail, tail);
+        gapEnd = bigger.length - tail;
+        text = bigger;
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Incremental Lexer: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Keeps the tokens of a source being edited up to date without lexing the whole text again.
+ *          An edit is re-lexed from the last token that starts in code before it, and lexing stops as
+ *          soon as a new token lines up with an old one past the edit (same shifted start, code and
+ *          length): from a token start on, both lexes see the same text in the same state, so every
+ *          later token is unchanged apart from its position.
+ *          Text and tokens are both kept with a gap at the last edit. Tokens after the gap hold their
+ *          positions as they were before some number of edits, and the shift since then is applied
+ *          when they are read, so the cost of an edit is the damaged region plus the distance from
+ *          the previous edit, not the size of the file.
+ */
+
+package ADT;
+
+import java.util.Arrays;
+
+/* --------------------------------
+ * -- INCREMENTAL LEXER CLASS  -----
+ * -------------------------------- */
+public class IncrementalLexer {
+
+    // elements
+    GapBuffer text;
+    Lexical lex;                // reset onto the damaged region for each edit
+    int[] codes;
+    int[] start;                // after the gap: start before tailShift was applied
+    int[] length;
+    int[] line;                 // after the gap: line before tailLines was applied
+    int[] column;
+    double[] values;
+    int gapStart;               // tokens [0, gapStart) are in front of the gap
+    int gapEnd;                 // tokens [gapEnd, codes.length) are behind it
+    int tailShift;              // added to the start of every token behind the gap
+    int tailLines;              // added to the line of every token behind the gap
+
+    // token range changed by the last edit, see Edit
+    int changeStart;
+    int changeOldEnd;
+    int changeNewEnd;
+    int relexCount;             // tokens lexed by the last edit
+
+    // constructor - lexes [inputText] in full
+    public IncrementalLexer(CharSequence inputText) {
+        text = new GapBuffer("");
+        lex = new Lexical(text, null, false);
+        lex.warningLog = new java.util.ArrayList<>();      // an editor shows no lexer warnings
+        lex.warningTokens = new java.util.ArrayList<>();
+        codes = new int[1024];
+        start = new int[1024];
+        length = new int[1024];
+        line = new int[1024];
+        column = new int[1024];
+        values = new double[1024];
+        gapStart = 0;
+        gapEnd = codes.length;
+        Edit(0, 0, inputText);
+    }
+
+    // Replaces [removed] chars at [offset] with [inserted] and re-lexes what the edit damaged.
+    // Afterwards tokens [GetChangeStart(), GetChangeOldEnd()) of the old stream have become tokens
+    // [GetChangeStart(), GetChangeNewEnd()) of the new one; the rest are the same tokens, moved.
+    // False (nothing changed) if the range is outside the text.
+    public boolean Edit(int offset, int removed, CharSequence inserted) {
+        if ((offset < 0) || (removed < 0) || (offset + removed > text.length())) {
+            System.out.println("An error occurred. Edit range is outside the text!");
+            return false;
+        }
+        text.Replace(offset, removed, inserted);
+        int shift = inserted.length() - removed;
+        int editEnd = offset + inserted.length();       // end of the edit in the new text
+        int oldEditEnd = offset + removed;              // and in the old one
+
+        // restart at the last token before the edit that a fresh lexer would scan the same way,
+        // so everything before it (including the char it stopped on) is untouched
+        int restart = findBefore(offset);
+        while ((restart >= 0) && (!canRestartAt(restart))) {
+            restart--;
+        }
+        int restartPos = 0;
+        int restartLine = 1;
+        int restartColumn = 1;
+        if (restart >= 0) {
+            restartPos = GetStart(restart);
+            restartLine = GetLine(restart);
+            restartColumn = GetColumn(restart);
+        } else {
+            restart = 0;
+        }
+        moveGap(restart);
+
+        // lex until a token lines up with an old one behind the edit
+        lex.reset(new SourceBuffer.Slice(text, restartPos, text.length()));
+        int old = gapEnd;
+        boolean synced = false;
+        int syncLine = 0;
+        int syncColumn = 0;
+        relexCount = 0;
+        Lexical.StreamToken token;
+        while ((token = lex.GetNextStreamToken()) != null) {
+            relexCount++;
+            int pos = restartPos + (int) token.start;
+            int tokenLine = restartLine + token.line - 1;
+            int tokenColumn = (token.line == 1) ? restartColumn + token.column - 1 : token.column;
+
+            // old tokens that were edited away or now lie behind pos cannot line up any more
+            while ((old < codes.length) && ((start[old] + tailShift < oldEditEnd)
+                    || (start[old] + tailShift + shift < pos))) {
+                old++;
+            }
+            if ((pos >= editEnd) && (old < codes.length) && (start[old] + tailShift + shift == pos)
+                    && (codes[old] == token.code) && (length[old] == token.length)) {
+                synced = true;
+                syncLine = tokenLine;
+                syncColumn = tokenColumn;
+                break;
+            }
+
+            if (gapStart == gapEnd) {
+                grow();
+                old += codes.length / 2;
+            }
+            codes[gapStart] = token.code;
+            start[gapStart] = pos;
+            length[gapStart] = token.length;
+            line[gapStart] = tokenLine;
+            column[gapStart] = tokenColumn;
+            values[gapStart] = (token.code == Lexical.INTEGER_ID) ? token.intValue : token.floatValue;
+            gapStart++;
+        }
+        if (!synced) {
+            old = codes.length;     // lexed to the end, nothing old is left
+        }
+
+        // the old tokens [gapEnd, old) were replaced by the new ones [restart, gapStart); tokens
+        // lexed again unchanged ahead of the edit are not reported as changed
+        int oldFirst = gapEnd;
+        changeStart = restart;
+        while ((changeStart < gapStart) && (oldFirst + changeStart - restart < old)
+                && (start[changeStart] + length[changeStart] <= offset)
+                && sameToken(changeStart, oldFirst + changeStart - restart)) {
+            changeStart++;
+        }
+        changeOldEnd = restart + (old - oldFirst);
+        changeNewEnd = gapStart;
+        gapEnd = old;
+        if (synced) {
+            realign(old, shift, syncLine, syncColumn);
+        }
+        return true;
+    }
+
+    // first token changed by the last edit
+    public int GetChangeStart() {
+        return changeStart;
+    }
+
+    // end (exclusive) of the changed tokens, as indexes into the stream before the last edit
+    public int GetChangeOldEnd() {
+        return changeOldEnd;
+    }
+
+    // end (exclusive) of the changed tokens, as indexes into the stream after the last edit
+    public int GetChangeNewEnd() {
+        return changeNewEnd;
+    }
+
+    // tokens lexed by the last edit, including the one that lined up
+    public int GetRelexCount() {
+        return relexCount;
+    }
+
+    // the current text
+    public SourceBuffer GetText() {
+        return text;
+    }
+
+    // number of tokens
+    public int Count() {
+        return codes.length - (gapEnd - gapStart);
+    }
+
+    public int GetCode(int index) {
+        return codes[slot(index)];
+    }
+
+    public int GetStart(int index) {
+        return (index < gapStart) ? start[index] : start[slot(index)] + tailShift;
+    }
+
+    public int GetLength(int index) {
+        return length[slot(index)];
+    }
+
+    public int GetLine(int index) {
+        return (index < gapStart) ? line[index] : line[slot(index)] + tailLines;
+    }
+
+    public int GetColumn(int index) {
+        return column[slot(index)];
+    }
+
+    // value of an INTEGER token
+    public int GetIntValue(int index) {
+        return (int) values[slot(index)];
+    }
+
+    // value of a FLOAT token
+    public double GetFloatValue(int index) {
+        return values[slot(index)];
+    }
+
+    // lexeme of a token, copied out of the text on each call
+    public String GetLexeme(int index) {
+        int from = GetStart(index);
+        return text.substring(from, from + GetLength(index));
+    }
+
+    // mnemonic of a token, looked up on each call
+    public String GetMnemonic(int index) {
+        return lex.mnemonicFor(GetCode(index));
+    }
+
+    // array slot of token [index], skipping the gap
+    private int slot(int index) {
+        return (index < gapStart) ? index : index + (gapEnd - gapStart);
+    }
+
+    // last token starting before [pos], -1 if none
+    private int findBefore(int pos) {
+        int low = 0;
+        int high = Count() - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (GetStart(mid) < pos) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    // True if lexing from the start of token [index] gives what the full lex gave. The lexer only
+    // looks for a comment after whitespace, so a token straight after a comment end may have been
+    // scanned differently (e.g. "{a}(*" lexes ( and *); those are skipped, as are strings.
+    private boolean canRestartAt(int index) {
+        int pos = GetStart(index);
+        if (!Lexical.canRestartAt(GetCode(index))) {
+            return false;
+        }
+        return (pos == 0) || ((text.charAt(pos - 1) != '}') && (text.charAt(pos - 1) != ')'));
+    }
+
+    // true if the new token [index] in front of the gap equals the old one in [oldSlot]
+    private boolean sameToken(int index, int oldSlot) {
+        return (codes[index] == codes[oldSlot]) && (start[index] == start[oldSlot] + tailShift)
+                && (length[index] == length[oldSlot]) && (line[index] == line[oldSlot] + tailLines)
+                && (column[index] == column[oldSlot]) && (values[index] == values[oldSlot]);
+    }
+
+    // the old token in [oldSlot] lined up at [newLine], [newColumn]: fold the edit into the shifts
+    // of the tokens behind the gap, and move the columns of the ones left on its line
+    private void realign(int oldSlot, int shift, int newLine, int newColumn) {
+        int oldLine = line[oldSlot];
+        int columnShift = newColumn - column[oldSlot];
+        tailShift += shift;
+        tailLines = newLine - oldLine;
+        for (int i = oldSlot; (columnShift != 0) && (i < codes.length) && (line[i] == oldLine); i++) {
+            column[i] += columnShift;
+        }
+    }
+
+    // moves the gap to start at token [index], converting positions as tokens cross it
+    private void moveGap(int index) {
+        if (index < gapStart) {
+            int count = gapStart - index;
+            int to = gapEnd - count;
+            moveTokens(index, to, count);
+            for (int i = to; i < gapEnd; i++) {
+                start[i] -= tailShift;
+                line[i] -= tailLines;
+            }
+            gapStart = index;
+            gapEnd = to;
+        } else if (index > gapStart) {
+            int count = index - gapStart;
+            moveTokens(gapEnd, gapStart, count);
+            for (int i = gapStart; i < index; i++) {
+                start[i] += tailShift;
+                line[i] += tailLines;
+            }
+            gapStart = index;
+            gapEnd += count;
+        }
+    }
+
+    private void moveTokens(int from, int to, int count) {
+        System.arraycopy(codes, from, codes, to, count);
+        System.arraycopy(start, from, start, to, count);
+        System.arraycopy(length, from, length, to, count);
+        System.arraycopy(line, from, line, to, count);
+        System.arraycopy(column, from, column, to, count);
+        System.arraycopy(values, from, values, to, count);
+    }
+
+    // doubles every column, the tokens behind the gap move to the new end
+    private void grow() {
+        int size = codes.length * 2;
+        int tail = codes.length - gapEnd;
+        codes = growColumn(codes, size, tail);
+        start = growColumn(start, size, tail);
+        length = growColumn(length, size, tail);
+        line = growColumn(line, size, tail);
+        column = growColumn(column, size, tail);
+        double[] biggerValues = Arrays.copyOf(values, size);
+        System.arraycopy(values, gapEnd, biggerValues, size - tail, tail);
+        values = biggerValues;
+        gapEnd = size - tail;
+    }
+
+    private int[] growColumn(int[] column, int size, int tail) {
+        int[] bigger = Arrays.copyOf(column, size);
+        System.arraycopy(column, column.length - tail, bigger, size - tail, tail);
+        return bigger;
+    }
+}
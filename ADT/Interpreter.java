@@ -1,7 +1,7 @@
 /*
  * Interpreter: Java Class File
  * Created by: Matthew Hileman
- * Last Updated: 29 April 2022
+ * Last Updated: 17 October 2026
  *      UPDATE 1: Edited READ / WRITE to use op3 instead of op1.
  * Purpose: Interpret a quadtable with a symbol table and an op table. Implementation of op codes.
  */
@@ -9,6 +9,7 @@
 package ADT;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.IntBuffer;
 import java.util.Scanner;
 
 /* --------------------------------
@@ -19,15 +20,79 @@ public class Interpreter {
 
     // constants
     static int MAX_RESERVE = 40;
-    static int MAX_QUAD = 1000;
+    // op codes, built once per JVM (see initReserve), frozen and shared by every interpreter
+    static final ReserveTable OPCODES = initReserve(new ReserveTable(MAX_RESERVE)).Freeze();
+    static final int STOP_PC = Integer.MAX_VALUE;   // next pc after STOP, past any program
+    static final int ERROR_PC = Integer.MIN_VALUE;  // next pc after an error that stops the run
+    // every engine checks the pc against [0, quad count) before fetching: a jump outside the quads,
+    // either way, ends the run as running off the end does
+    static final int TIER_THRESHOLD = 1000;         // default backward jumps before a loop is compiled (TIERED)
+    // op codes, the numbers execute switches on (initReserve gives them their names)
+    static final int STOP = 0;
+    static final int DIV = 1;
+    static final int MUL = 2;
+    static final int SUB = 3;
+    static final int ADD = 4;
+    static final int MOV = 5;
+    static final int PRINT = 6;
+    static final int READ = 7;
+    static final int JMP = 8;
+    static final int JZ = 9;
+    static final int JP = 10;
+    static final int JN = 11;
+    static final int JNZ = 12;
+    static final int JNP = 13;
+    static final int JNN = 14;
+    static final int JINDR = 15;
+    // ways of running the quads (see setEngine)
+    public enum Engine {
+        SWITCH,     // fetch each quad and switch on its op code (execute)
+        CLOSURE,    // translate the quads into linked instruction objects first, then follow them (ClosureEngine)
+        REGISTER,   // switch on op codes against a register file copied out of the symbol table (RegisterVM)
+        JIT,        // compile the quads to a JVM class first, then run that (QuadCompiler)
+        TIERED      // interpret, compiling each loop that gets hot and going on inside it (TierCounters)
+    }
+
     // vars
     ReserveTable optable;
-
-    // constructor - initialize reserve table using initReserve
+    Engine engine = Engine.SWITCH;
+    int tierThreshold = TIER_THRESHOLD;
+    TierCounters tiers;     // of the last TIERED run
+
+    // state of the current run, set up by start
+    SymbolTable symbols;
+    int[] values;           // symbols' integer column
+    byte[] types;           // symbols' data type column
+    PrintWriter writer;     // trace file
+    boolean traceOn;
+
+    // constructor - use the shared op code table
     public Interpreter() {
-        // create optable with op codes (see function)
-        optable = new ReserveTable(MAX_RESERVE);
-        initReserve(optable);
+        optable = OPCODES;
+    }
+
+    // Chooses how the quads of a QuadTable or ProgramFile are run from now on; every engine gives the
+    // same output. CompactQuads always run on the switch.
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    // Backward jumps to a loop head, while interpreted, before a TIERED run compiles the loop.
+    public void setTierThreshold(int threshold) {
+        tierThreshold = threshold;
+    }
+
+    public int getTierThreshold() {
+        return tierThreshold;
+    }
+
+    // what the last TIERED run counted and decided, null if there has been none
+    public TierCounters getTierCounters() {
+        return tiers;
     }
 
     /* -----------------------------
@@ -35,11 +100,221 @@ public class Interpreter {
      * -------------------------- */
     public void InterpretQuads(QuadTable qtable, SymbolTable stable, boolean TraceOn, String filename) {
 
+        // quads are fetched straight from the quad table's packed array
+        // (the running program adds no quads, so the array stays the same)
+        int[] code = qtable.quads;
+        int quadCount = qtable.NextQuad();
+
+        // every op code is checked once here rather than each time it runs
+        for (int i = 0; i < quadCount; i++) {
+            if (!validOpcode(i, code[i * QuadTable.QUAD_WIDTH])) {
+                return;
+            }
+        }
+        if (!start(stable, TraceOn, filename)) {
+            return;
+        }
+        if (engine != Engine.SWITCH) {
+            runEngine(code, quadCount);
+        } else if (runSwitch(code, quadCount)) {
+            finish();
+        }
+    } // InterpretQuads
+
+    // Same as above, running from the compact encoding of the quads (see CompactQuads) without
+    // unpacking them first. The pc is still a quad number; a jump finds its quad through the
+    // encoding's offset index.
+    public void InterpretQuads(CompactQuads code, SymbolTable stable, boolean TraceOn, String filename) {
+
+        // setup
+        int pc = 0;
+        int offset = 0;
+        int[] quad = new int[4];
+        int quadCount = code.Count();
+        for (int i = 0; i < quadCount; i++) {
+            offset = code.Decode(offset, quad);
+            if (!validOpcode(i, quad[0])) {
+                return;
+            }
+        }
+        offset = 0;
+        if (!start(stable, TraceOn, filename)) {
+            return;
+        }
+
+        // main interpreter loop, as above
+        while ((pc >= 0) && (pc < quadCount)){
+
+            // decode the quad at the current PC, leaving offset at the one after it
+            offset = code.Decode(offset, quad);
+
+            int next = execute(pc, quad[0], quad[1], quad[2], quad[3]);
+            if (next == ERROR_PC) {
+                return;
+            }
+            // a jump (anywhere but the next quad) has to find where its target starts
+            if ((next != pc + 1) && (next >= 0) && (next < quadCount)) {
+                offset = code.OffsetOf(next);
+            }
+            pc = next;
+        } // while
+
+        finish();
+    } // InterpretQuads
+
+    // Same again, running a saved program (see ProgramFile) with its quads fetched straight from the
+    // mapped file, against the symbol table that was loaded with it.
+    public void InterpretQuads(ProgramFile program, boolean TraceOn, String filename) {
+
         // setup
+        int pc = 0;
+        IntBuffer code = program.quads;
+        int quadCount = program.quadCount;
+        for (int i = 0; i < quadCount; i++) {
+            if (!validOpcode(i, code.get(i * QuadTable.QUAD_WIDTH))) {
+                return;
+            }
+        }
+        if (!start(program.symbols, TraceOn, filename)) {
+            return;
+        }
+        if (engine != Engine.SWITCH) {
+            // the other engines translate from an array, so the quads are copied out of the mapping
+            int[] copy = new int[quadCount * QuadTable.QUAD_WIDTH];
+            code.duplicate().get(copy);
+            runEngine(copy, quadCount);
+            return;
+        }
+
+        // main interpreter loop, as above
+        while ((pc >= 0) && (pc < quadCount)){
+            int base = pc * QuadTable.QUAD_WIDTH;
+            pc = execute(pc, code.get(base), code.get(base + 1), code.get(base + 2), code.get(base + 3));
+            if (pc == ERROR_PC) {
+                return;
+            }
+        } // while
+
+        finish();
+    } // InterpretQuads
+
+    // Runs [quadCount] packed quads on the switch, after start. False after an error.
+    private boolean runSwitch(int[] code, int quadCount) {
         int pc, opcode, op1, op2, op3;
-        String opname;
         pc = 0;
-        PrintWriter writer;
+
+        // main interpreter loop
+        // will end when the pc leaves the quad table or stop is encountered
+        while ((pc >= 0) && (pc < quadCount)){
+
+            // get quad data at current PC
+            int base = pc * QuadTable.QUAD_WIDTH;
+            opcode = code[base];
+            op1 = code[base + 1];
+            op2 = code[base + 2];
+            op3 = code[base + 3];
+
+            pc = execute(pc, opcode, op1, op2, op3);
+            if (pc == ERROR_PC) {
+                return false;
+            }
+        } // while
+        return true;
+    }
+
+    // Runs [quadCount] packed quads on the chosen engine other than the switch, after start.
+    private void runEngine(int[] code, int quadCount) {
+        boolean stopped;
+        switch (engine) {
+            case REGISTER:
+                stopped = new RegisterVM(this, code, quadCount).run();
+                break;
+            case JIT:
+                stopped = runCompiled(code, quadCount);
+                break;
+            case TIERED:
+                stopped = runTiered(code, quadCount);
+                break;
+            default:
+                stopped = new ClosureEngine(this, code, quadCount).run();
+        }
+        if (stopped) {
+            finish();
+        }
+    }
+
+    // Runs [quadCount] packed quads compiled to a JVM class. The compiled code cannot trace, so a
+    // traced run, or a program the compiler does not take, runs on the switch instead.
+    private boolean runCompiled(int[] code, int quadCount) {
+        QuadCompiler.Region compiled = traceOn ? null : QuadCompiler.compile(code, 0, quadCount, symbols);
+        if (compiled == null) {
+            return runSwitch(code, quadCount);
+        }
+        // the compiled code only comes back out for STOP, the end, or a JINDR (which may go back in)
+        int pc = 0;
+        while ((pc >= 0) && (pc < quadCount)) {
+            pc = compiled.run(pc, values, types, this);
+        }
+        return true;
+    }
+
+    // Runs [quadCount] packed quads on the switch, counting the backward JMPs taken to each quad.
+    // When a loop head reaches the threshold, the loop (the head up to that JMP) is compiled and the
+    // run goes into it at the head, against the same symbol values; it comes back out to the
+    // interpreter at the quad after the loop, or wherever else it leaves. Every later time the
+    // interpreter reaches the head, the compiled loop runs instead. A traced run only interprets.
+    private boolean runTiered(int[] code, int quadCount) {
+        tiers = new TierCounters(tierThreshold, quadCount);
+        if (traceOn) {
+            return runSwitch(code, quadCount);
+        }
+        QuadCompiler.Region[] loops = new QuadCompiler.Region[quadCount];    // compiled loop, by head
+        int[] backJumps = tiers.backJumps;
+        long interpreted = 0;
+        int pc = 0;
+        try {
+            while ((pc >= 0) && (pc < quadCount)) {
+                QuadCompiler.Region loop = loops[pc];
+                if (loop != null) {
+                    tiers.entries++;
+                    pc = loop.run(pc, values, types, this);
+                    continue;
+                }
+                int base = pc * QuadTable.QUAD_WIDTH;
+                int opcode = code[base];
+                int next = execute(pc, opcode, code[base + 1], code[base + 2], code[base + 3]);
+                interpreted++;
+                if (next == ERROR_PC) {
+                    return false;
+                }
+                // a JMP back is the end of a loop whose head is its target; it is tried once
+                if ((opcode == JMP) && (next <= pc) && (next >= 0) && (++backJumps[next] == tierThreshold)) {
+                    loops[next] = QuadCompiler.compile(code, next, pc + 1, symbols);
+                    tiers.decided(next, pc + 1, loops[next] != null);
+                }
+                pc = next;
+            }
+        } finally {
+            tiers.interpreted = interpreted;
+        }
+        return true;
+    }
+
+    // False (after saying where) if [opcode], of the quad at [pc], is not in the op code table.
+    // Run over a whole program before it starts, so execute does not have to check.
+    private boolean validOpcode(int pc, int opcode) {
+        if (optable.LookupCode(opcode).equals("")){
+            System.out.println("opcode error! No such opcode: " + opcode + ", at PC: " + pc);
+            System.out.println("Stopping interpreter!\n");
+            return false;
+        }
+        return true;
+    }
+
+    // Opens the trace file and points the run at [stable]'s columns: integer values and data types
+    // are read and written straight from them (the running program adds no symbols, so the arrays
+    // stay the same). False if the trace file could not be made.
+    private boolean start(SymbolTable stable, boolean TraceOn, String filename) {
 
         // Create Writer
         try {
@@ -58,157 +333,20 @@ public class Interpreter {
         } catch (IOException e) {
             System.out.println("An error occurred. Could not create file: " + filename);
             e.printStackTrace();
-            return;
+            return false;
         }
+        traceOn = TraceOn;
+        symbols = stable;
+        values = stable.integers;
+        types = stable.types;
+        return true;
+    }
 
-
-        // main interpreter loop
-        // will end when MAX_QUAD is reach or stop is encountered
-        while (pc < MAX_QUAD){
-
-            // get quad data at current PC
-            opcode = qtable.GetQuad(pc, 0);
-            opname = optable.LookupCode(opcode);
-            op1 = qtable.GetQuad(pc, 1);
-            op2 = qtable.GetQuad(pc, 2);
-            op3 = qtable.GetQuad(pc, 3);
-
-            if (TraceOn){
-                writer.println(makeTraceString(pc, opcode, op1, op2, op3));
-                System.out.println(makeTraceString(pc, opcode, op1, op2, op3));
-            }
-
-            // ERROR CHECK, make sure the opcode is valid
-            if (opname.equals("")){
-                System.out.println("opcode error! No such opcode: " + opcode + ", at PC: " + pc);
-                System.out.println("Stopping interpreter!\n");
-                return;
-            } else {
-                // Main switch statement. Checks for op.
-                switch (opname.toUpperCase()){
-
-                    // MATH: DIV, MUL, SUB, ADD:
-                    case "DIV":
-                        stable.UpdateSymbol(op3, stable.GetKind(op3), stable.GetInteger(op1)
-                                / stable.GetInteger(op2));
-                        pc++;
-                        break;
-
-                    case "MUL":
-                        stable.UpdateSymbol(op3, stable.GetKind(op3), stable.GetInteger(op1)
-                                * stable.GetInteger(op2));
-                        pc++;
-                        break;
-
-                    case "SUB":
-                        stable.UpdateSymbol(op3, stable.GetKind(op3), stable.GetInteger(op1)
-                                - stable.GetInteger(op2));
-                        pc++;
-                        break;
-
-                    case "ADD":
-                        stable.UpdateSymbol(op3, stable.GetKind(op3), stable.GetInteger(op1)
-                                + stable.GetInteger(op2));
-                        pc++;
-                        break;
-
-
-                    // DATA STORAGE: MOVE
-                    case "MOV":
-                        stable.UpdateSymbol(op3, stable.GetKind(op3), stable.GetInteger(op1));
-                        pc++;
-                        break;
-
-
-                    // UTILITY: PRINT, READ
-                    case "PRINT":
-                        if (stable.GetDataType(op3) == 'I') {
-                            System.out.println(stable.GetSymbol(op3) + " = " + stable.GetInteger(op3));
-                        } else if (stable.GetDataType(op3) == 'S'){
-                            System.out.println(stable.GetString(op3));
-                        } else if (stable.GetDataType(op3) == 'F'){
-                            System.out.println(stable.GetSymbol(op3) + " = " + stable.GetFloat(op3));
-                        }
-                        pc++;
-                        break;
-
-                    case "READ":
-                        // need to create scanner
-                        int temp_int;
-                        Scanner userInput = new Scanner(System.in);
-                        System.out.print("Enter an integer value into '" + stable.GetSymbol(op3) + "': ");
-
-                        // get input and make sure it is an int
-                        try {
-                            temp_int = userInput.nextInt();
-                        } catch (Exception e) {
-                            System.out.println("ERROR: You did not enter an int! Ignoring input.");
-                            pc++;
-                            break;
-                        }
-                        userInput.close();
-
-                        // assign to user input
-                        stable.UpdateSymbol(op3, stable.GetKind(op3), temp_int);
-                        System.out.println("Integer accepted! " + stable.GetSymbol(op3)
-                                + " is now " + stable.GetInteger(op3) );
-                        pc++;
-                        break;
-
-
-                    // BRANCHES: JMP, JZ, JP, JN, JNZ, JNP, JNN, JINDR
-                    case "JMP":
-                        pc = op3;
-                        break;
-
-                    case "JZ":
-                        if (stable.GetInteger(op1) == 0){ pc = op3; } else { pc++; }
-                        break;
-
-                    case "JP":
-                        if (stable.GetInteger(op1) > 0){ pc = op3; } else { pc++; }
-                        break;
-
-                    case "JN":
-                        if (stable.GetInteger(op1) < 0){ pc = op3; } else { pc++; }
-                        break;
-
-                    case "JNZ":
-                        if (stable.GetInteger(op1) != 0){ pc = op3; } else { pc++; }
-                        break;
-
-                    case "JNP":
-                        if (stable.GetInteger(op1) <= 0){ pc = op3; } else { pc++; }
-                        break;
-
-                    case "JNN":
-                        if (stable.GetInteger(op1) >= 0){ pc = op3; } else { pc++; }
-                        break;
-
-                    case "JINDR":
-                        pc = stable.GetInteger(op3);
-                        break;
-
-
-                    // TERMINATE: STOP
-                    case "STOP":
-                        writer.println("Execution terminated by program STOP.");
-                        System.out.println("Execution terminated by program STOP.");
-                        pc = MAX_QUAD;
-                        break;
-
-                    // ERROR CASE: UNRECOGNIZED
-                    default:
-                        writer.println("ERROR: Unrecognized opname: " + opname);
-                        System.out.println("ERROR: Unrecognized opname: " + opname);
-                        return;
-
-                } // switch
-            } // else
-        } // while
+    // footer, once the program has stopped
+    private void finish() {
 
         // Close and footer
-        if (TraceOn){
+        if (traceOn){
             // footer
             writer.println("----------------------------------------------------------------");
             System.out.println("----------------------------------------------------------------");
@@ -216,27 +354,197 @@ public class Interpreter {
             writer.flush();
             writer.close();
         }
+    }
 
-    } // InterpretQuads
+    // Executes the quad at [pc] and returns the pc of the quad to run next: STOP_PC after a STOP,
+    // ERROR_PC after an error (already reported). Shared by every way of fetching quads.
+    // Op codes were checked when the program was loaded (see validOpcode), so the op code is
+    // switched on directly, without looking up its name.
+    private int execute(int pc, int opcode, int op1, int op2, int op3) {
+
+        if (traceOn){
+            trace(pc, opcode, op1, op2, op3);
+        }
+
+        try {
+            // Main switch statement. Checks for op.
+            switch (opcode){
+
+                // MATH: DIV, MUL, SUB, ADD:
+                case DIV:
+                    values[op3] = values[op1] / values[op2];
+                    types[op3] = 'I';
+                    pc++;
+                    break;
+
+                case MUL:
+                    values[op3] = values[op1] * values[op2];
+                    types[op3] = 'I';
+                    pc++;
+                    break;
+
+                case SUB:
+                    values[op3] = values[op1] - values[op2];
+                    types[op3] = 'I';
+                    pc++;
+                    break;
+
+                case ADD:
+                    values[op3] = values[op1] + values[op2];
+                    types[op3] = 'I';
+                    pc++;
+                    break;
+
+
+                // DATA STORAGE: MOVE
+                case MOV:
+                    values[op3] = values[op1];
+                    types[op3] = 'I';
+                    pc++;
+                    break;
+
+
+                // UTILITY: PRINT, READ
+                case PRINT:
+                    print(op3);
+                    pc++;
+                    break;
+
+                case READ:
+                    read(op3);
+                    pc++;
+                    break;
+
+
+                // BRANCHES: JMP, JZ, JP, JN, JNZ, JNP, JNN, JINDR
+                case JMP:
+                    pc = op3;
+                    break;
+
+                case JZ:
+                    if (values[op1] == 0){ pc = op3; } else { pc++; }
+                    break;
+
+                case JP:
+                    if (values[op1] > 0){ pc = op3; } else { pc++; }
+                    break;
+
+                case JN:
+                    if (values[op1] < 0){ pc = op3; } else { pc++; }
+                    break;
+
+                case JNZ:
+                    if (values[op1] != 0){ pc = op3; } else { pc++; }
+                    break;
+
+                case JNP:
+                    if (values[op1] <= 0){ pc = op3; } else { pc++; }
+                    break;
+
+                case JNN:
+                    if (values[op1] >= 0){ pc = op3; } else { pc++; }
+                    break;
+
+                case JINDR:
+                    pc = values[op3];
+                    break;
+
+
+                // TERMINATE: STOP
+                case STOP:
+                    stop();
+                    pc = STOP_PC;
+                    break;
+
+                // ERROR CASE: UNRECOGNIZED
+                default:
+                    writer.println("ERROR: Unrecognized opcode: " + opcode);
+                    System.out.println("ERROR: Unrecognized opcode: " + opcode);
+                    return ERROR_PC;
+
+            } // switch
+
+        // ERROR CASE: an operand that is not a symbol row
+        } catch (ArrayIndexOutOfBoundsException e) {
+            indexError(pc);
+            return ERROR_PC;
+        }
+        return pc;
+    } // execute
+
+    /* -----------------------------
+     * Instructions shared by every engine
+     * -------------------------- */
+    // PRINT: the symbol at row [op3]
+    void print(int op3) {
+        if (symbols.GetDataType(op3) == 'I') {
+            System.out.println(symbols.GetSymbol(op3) + " = " + symbols.GetInteger(op3));
+        } else if (symbols.GetDataType(op3) == 'S'){
+            System.out.println(symbols.GetString(op3));
+        } else if (symbols.GetDataType(op3) == 'F'){
+            System.out.println(symbols.GetSymbol(op3) + " = " + symbols.GetFloat(op3));
+        }
+    }
+
+    // READ: an integer from the console into the symbol at row [op3]
+    void read(int op3) {
+        // need to create scanner
+        int temp_int;
+        Scanner userInput = new Scanner(System.in);
+        System.out.print("Enter an integer value into '" + symbols.GetSymbol(op3) + "': ");
+
+        // get input and make sure it is an int
+        try {
+            temp_int = userInput.nextInt();
+        } catch (Exception e) {
+            System.out.println("ERROR: You did not enter an int! Ignoring input.");
+            return;
+        }
+        userInput.close();
+
+        // assign to user input
+        symbols.UpdateSymbol(op3, symbols.GetKind(op3), temp_int);
+        System.out.println("Integer accepted! " + symbols.GetSymbol(op3)
+                + " is now " + symbols.GetInteger(op3) );
+    }
+
+    // STOP: the message (the caller ends the run)
+    void stop() {
+        writer.println("Execution terminated by program STOP.");
+        System.out.println("Execution terminated by program STOP.");
+    }
+
+    // an operand of the quad at [pc] is not a symbol row (the run stops)
+    void indexError(int pc) {
+        System.out.println("An error occurred. Symbol index out of bounds at PC: " + pc);
+        System.out.println("Stopping interpreter!\n");
+    }
+
+    // trace line for the quad about to run
+    void trace(int pc, int opcode, int op1, int op2, int op3) {
+        writer.println(makeTraceString(pc, opcode, op1, op2, op3));
+        System.out.println(makeTraceString(pc, opcode, op1, op2, op3));
+    }
 
     // initialization of reserve table (different from the provided)
-    private void initReserve(ReserveTable optable){
-        optable.Add("STOP", 0);
-        optable.Add("DIV", 1);
-        optable.Add("MUL", 2);
-        optable.Add("SUB", 3);
-        optable.Add("ADD", 4);
-        optable.Add("MOV", 5);
-        optable.Add("PRINT", 6);
-        optable.Add("READ", 7);
-        optable.Add("JMP", 8);
-        optable.Add("JZ", 9);
-        optable.Add("JP", 10);
-        optable.Add("JN", 11);
-        optable.Add("JNZ", 12);
-        optable.Add("JNP", 13);
-        optable.Add("JNN", 14);
-        optable.Add("JINDR", 15);
+    private static ReserveTable initReserve(ReserveTable optable){
+        optable.Add("STOP", STOP);
+        optable.Add("DIV", DIV);
+        optable.Add("MUL", MUL);
+        optable.Add("SUB", SUB);
+        optable.Add("ADD", ADD);
+        optable.Add("MOV", MOV);
+        optable.Add("PRINT", PRINT);
+        optable.Add("READ", READ);
+        optable.Add("JMP", JMP);
+        optable.Add("JZ", JZ);
+        optable.Add("JP", JP);
+        optable.Add("JN", JN);
+        optable.Add("JNZ", JNZ);
+        optable.Add("JNP", JNP);
+        optable.Add("JNN", JNN);
+        optable.Add("JINDR", JINDR);
+        return optable;
     }
 
     // factorial test - hard coded data to test the InterpretQuads function
@@ -0,0 +1,85 @@
+/*
+ * Keyword Hash: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Case-insensitive perfect hash over the names of a ReserveTable. A hash seed is searched
+ *          for at build time so that no two names share a slot; a lookup is then one hash, one
+ *          slot and one compare instead of a scan over every reserve word.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ----- KEYWORD HASH CLASS  ------
+ * -------------------------------- */
+public class KeywordHash {
+
+    // elements
+    int seed;
+    int mask;
+    char[][] keys;      // upper-cased name in each slot, null if the slot is empty
+    int[] codes;        // code for the name in the same slot
+    int notFound = -1;
+
+    // constructor - build the perfect hash from the rows of a filled reserve table
+    public KeywordHash(ReserveTable table) {
+        int size = Integer.highestOneBit(Math.max(table.elementCount, 1) * 4) * 2;
+        seed = 0;
+        while (!tryBuild(table, size)) {
+            seed++;
+            // give up on this size after enough seeds and spread the names out more
+            if (seed % 10000 == 0) {
+                size *= 2;
+            }
+        }
+    }
+
+    // fills the slots for the current seed, false on the first collision
+    private boolean tryBuild(ReserveTable table, int size) {
+        mask = size - 1;
+        keys = new char[size][];
+        codes = new int[size];
+        for (int i = 0; i < table.elementCount; i++) {
+            String name = table.opArray[i].name;
+            int slot = hash(name) & mask;
+            if (keys[slot] != null) {
+                return false;
+            }
+            keys[slot] = new char[name.length()];
+            for (int j = 0; j < name.length(); j++) {
+                keys[slot][j] = fold(name.charAt(j));
+            }
+            codes[slot] = table.opArray[i].code;
+        }
+        return true;
+    }
+
+    // reserve names are plain ASCII, so folding only has to upper-case a..z
+    private static char fold(char ch) {
+        return ((ch >= 'a') && (ch <= 'z')) ? (char) (ch - 32) : ch;
+    }
+
+    // FNV-1a over the folded characters, mixed with the seed
+    private int hash(CharSequence name) {
+        int h = 0x811C9DC5 ^ seed;
+        for (int i = 0; i < name.length(); i++) {
+            h = (h ^ fold(name.charAt(i))) * 0x01000193;
+        }
+        return h ^ (h >>> 15);
+    }
+
+    // look up the [code] given the [name], ignoring case (-1 if dne)
+    public int Lookup(CharSequence name) {
+        int slot = hash(name) & mask;
+        char[] key = keys[slot];
+        if ((key == null) || (key.length != name.length())) {
+            return notFound;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != fold(name.charAt(i))) {
+                return notFound;
+            }
+        }
+        return codes[slot];
+    }
+}
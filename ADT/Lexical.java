@@ -1,18 +1,23 @@
 /*
  * Lexical Analyzer: Lexical Class File
  * Created by: Matthew Hileman
- * Last Updated: 19 April 2022
+ * Last Updated: 17 October 2026
  * Purpose: Identify and classify tokens from an input file of compiled language.
  */
 
 package ADT;
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /* --------------------------------
  * -------- LEXICAL CLASS  --------
  * ----- PART 2, ASSIGNMENT 1 -----
  * -------------------------------- */
-public class Lexical {
+public class Lexical implements AutoCloseable {
 
     private File file;                        // File to be read for input
     private FileReader filereader;            // Reader, Java reqd
@@ -25,9 +30,15 @@ public class Lexical {
     private boolean printToken;               // true to print found tokens here
     private int lineCount;                    // line #in file, for echo-ing
     private boolean needLine;                 // track when to read a new line
-                                              // Tables to hold the reserve words and the mnemonics for token codes
-    private ReserveTable reserveWords = new ReserveTable(50); // a few more than # reserves
-    private ReserveTable mnemonics = new ReserveTable(50);    // a few more than # reserves
+    private SourceBuffer source;              // Mapped / in-memory input, null when reading line by line
+    private long bufPos;                      // Absolute position of the next char in source
+    private long lineStart;                   // Absolute position of the current line in source
+                                              // Tables to hold the reserve words and the mnemonics for token codes,
+                                              // built once per JVM, frozen and shared by every lexer
+    private static final ReserveTable RESERVE_WORDS = initReserveWords(new ReserveTable(50)).Freeze(); // a few more than # reserves
+    private static final ReserveTable MNEMONICS = initMnemonics(new ReserveTable(50)).Freeze();        // a few more than # reserves
+    private ReserveTable reserveWords = RESERVE_WORDS;
+    private ReserveTable mnemonics = MNEMONICS;
 
     // global char (current character)
     char currCh;
@@ -44,11 +55,11 @@ public class Lexical {
     public final int _EQLS = 42;
     public final int _NEQL = 43;
     // mnemonic codes - types
-    private final int IDENT_ID = 50;
-    private final int INTEGER_ID = 51;
-    private final int FLOAT_ID = 52;
-    private final int STRING_ID = 53;
-    private final int UNKNOWN_ID = 99;
+    static final int IDENT_ID = 50;
+    static final int INTEGER_ID = 51;
+    static final int FLOAT_ID = 52;
+    static final int STRING_ID = 53;
+    static final int UNKNOWN_ID = 99;
     // comment syntax
     final char comment_start1 = '{';
     final char comment_end1 = '}';
@@ -58,38 +69,206 @@ public class Lexical {
     // max lengths
     private final int MAX_IDENT = 20;
     private final int MAX_NUMBER = 9;
-    private boolean truncated = false;
+
+    // DFA character classes
+    private static final int C_OTHER = 0;
+    private static final int C_LETTER = 1;      // a..z, A..Z except e/E
+    private static final int C_E = 2;           // e, E (letter, or exponent after a fraction)
+    private static final int C_DIGIT = 3;
+    private static final int C_IDPUNCT = 4;     // | and _ inside identifiers
+    private static final int C_DOT = 5;
+    private static final int C_SIGN = 6;        // + and - inside an exponent
+    private static final int C_PREFIX = 7;      // : and <, start of a 2-char token
+    private static final int C_GREATER = 8;     // >, prefix and second char of <>
+    private static final int C_EQUALS = 9;      // =, second char of := <= >=
+    private static final int CLASS_COUNT = 10;
+    // DFA states, S_STOP means no transition (token ends before currCh)
+    private static final int S_STOP = -1;
+    private static final int S_START = 0;
+    private static final int S_IDENT = 1;       // <letter>{<letter>|<digit>|'|'|_}*
+    private static final int S_INT = 2;         // <digit>+
+    private static final int S_FRACTION = 3;    // <digit>+.<digit>*
+    private static final int S_EXP = 4;         // ...E
+    private static final int S_EXP_SIGN = 5;    // ...E[+|-]
+    private static final int S_EXP_DIGITS = 6;  // ...E[+|-]<digit>+
+    private static final int S_PREFIX = 7;      // : < >
+    private static final int S_TWO = 8;         // := <= >= <> and the unknown :> >>
+    private static final int S_SINGLE = 9;      // any other single character
+    private static final int STATE_COUNT = 10;
+    private static final byte[] CHAR_CLASS = initCharClasses();
+    private static final int[][] DFA = initTransitions();
+    // 10^0 .. 10^22, all exactly representable as doubles
+    private static final double[] POWERS_OF_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    // keyword and symbol lookup, built once from the shared reserve words
+    private static final KeywordHash KEYWORDS = new KeywordHash(RESERVE_WORDS);
+    private KeywordHash keywords = KEYWORDS;
+
+    // current token, filled in by ScanToken
+    private int tokCode;
+    private long tokStart;                    // source position of the first lexeme char
+    private int tokLength;
+    private int tokLine;
+    private int tokColumn;
+    private String tokString;                 // lexeme copied out, only once someone asks for it
+    private int tokInteger;                   // value of an INTEGER token
+    private double tokFloat;                  // value of a FLOAT token
+    private int tokSymbol;                    // symbol table index of the token, -1 if none
+    // numeric accumulators, filled as getDFAToken takes digits
+    private long mantissa;                    // digits so far, ignoring the point
+    private int mantissaDigits;               // digits held in mantissa
+    private int scale;                        // power of 10 to apply to mantissa (fraction digits, dropped digits)
+    private int exponent;                     // E part, magnitude only
+    private boolean exponentNegative;
+    private boolean intOverflow;              // integer part no longer fits an int
+    private StringBuilder lexBuf = new StringBuilder();  // lexeme chars when reading line by line
+    private SourceBuffer.View lexView;        // lexeme window when reading from source
+    private int tokenCount;                   // tokens scanned so far
+
+    // comment state at EOF, for lexing a source in chunks
+    static final int IN_CODE = 0;
+    static final int IN_BRACE_COMMENT = 1;
+    static final int IN_PAREN_COMMENT = 2;
+    private int openComment = IN_CODE;
+    // when set, warnings are kept here (tagged with the token count) instead of printed
+    ArrayList<String> warningLog;
+    ArrayList<Integer> warningTokens;
 
     /* -----------------------
      * **** CONSTRUCTOR **** *
      * -------------------- */
     public Lexical(String filename, SymbolTable symbols, boolean echoOn){
-        saveSymbols = symbols;  // map the initialized parameter to the local ST
-        echo = echoOn;          // store echo status
-        lineCount = 0;          // start the line number count
-        line = "";              // line starts empty
-        needLine = true;        // need to read a line
-        printToken = false;     // default OFF, do not print tokens here
-                                // within GetNextToken; call setPrintToken to change it publicly.
-        linePos = -1;           // no chars read yet
+        this(filename, symbols, echoOn, false);
+    }
 
-        // call initializations of tables
-        initReserveWords(reserveWords);
-        initMnemonics(mnemonics);
+    // mappedInput = true maps the file and scans it in place instead of reading it line by line
+    public Lexical(String filename, SymbolTable symbols, boolean echoOn, boolean mappedInput){
+        init(symbols, echoOn);
 
         // set up the file access, get first character, line retrieved 1st time
         try {
-            file = new File(filename);                        // creates a new file instance
-            filereader = new FileReader(file);                // reads the file
-            bufferedreader = new BufferedReader(filereader);  // creates a buffering character input stream
+            if (mappedInput) {
+                setSource(new MappedSource(filename));              // maps the whole file, no line copies
+            } else {
+                file = new File(filename);                        // creates a new file instance
+                filereader = new FileReader(file);                // reads the file
+                bufferedreader = new BufferedReader(filereader);  // creates a buffering character input stream
+            }
             EOF = false;
             currCh = GetNextChar();
         } catch (IOException e) {
             EOF = true;
+            needLine = false;   // nothing to read lines from
             e.printStackTrace();
         }
     } // constructor
 
+    // lex a source that is already in memory, e.g. new CharSequenceSource(text)
+    public Lexical(SourceBuffer input, SymbolTable symbols, boolean echoOn){
+        init(symbols, echoOn);
+        setSource(input);
+        EOF = false;
+        currCh = GetNextChar();
+    } // constructor
+
+    // lex from a Reader, line by line like a file; close() closes the reader
+    public Lexical(Reader input, SymbolTable symbols, boolean echoOn){
+        init(symbols, echoOn);
+        bufferedreader = (input instanceof BufferedReader) ? (BufferedReader) input : new BufferedReader(input);
+        EOF = false;
+        currCh = GetNextChar();
+    } // constructor
+
+    // lex from a byte stream (e.g. a pipe), decoded with the default charset as a file would be
+    public Lexical(InputStream input, SymbolTable symbols, boolean echoOn){
+        this(new InputStreamReader(input, Charset.defaultCharset()), symbols, echoOn);
+    } // constructor
+
+    // lex from a channel (socket, pipe, file channel), decoded with the default charset
+    public Lexical(ReadableByteChannel input, SymbolTable symbols, boolean echoOn){
+        this(Channels.newReader(input, Charset.defaultCharset()), symbols, echoOn);
+    } // constructor
+
+    // Lex text that is already in memory. A factory rather than a constructor, since a String
+    // passed to a constructor is taken as a filename.
+    public static Lexical fromText(CharSequence text, SymbolTable symbols, boolean echoOn) {
+        return new Lexical(new CharSequenceSource(text), symbols, echoOn);
+    }
+
+    // releases the input: the reader (and whatever it reads from) or the source buffer
+    public void close() {
+        closeReader();
+        if (source != null) {
+            source.close();
+        }
+        EOF = true;
+        needLine = false;
+    }
+
+    // closes the line reader, once the input is used up or the lexer is closed
+    private void closeReader() {
+        if (bufferedreader != null) {
+            try {
+                bufferedreader.close();
+            } catch (IOException e) {
+                System.out.println("An error occurred. Unable to close the lexer input!");
+                e.printStackTrace();
+            }
+            bufferedreader = null;
+        }
+    }
+
+    // state shared by every constructor
+    private void init(SymbolTable symbols, boolean echoOn) {
+        saveSymbols = symbols;  // map the initialized parameter to the local ST
+        echo = echoOn;          // store echo status
+        lineCount = 0;          // start the line number count
+        line = "";              // line starts empty
+        needLine = true;        // need to read a line
+        printToken = false;     // default OFF, do not print tokens here
+                                // within GetNextToken; call setPrintToken to change it publicly.
+        linePos = -1;           // no chars read yet
+    }
+
+    // read from a whole-source buffer instead of line by line
+    private void setSource(SourceBuffer input) {
+        source = input;
+        bufPos = 0;
+        lineStart = 0;
+        lexView = new SourceBuffer.View(source);
+    }
+
+
+    // Streaming token, one per lexer and reused by every GetNextStreamToken call. The lexeme
+    // is a view of the lexer's current token (valid until the next call); lexemeString and
+    // mnemonic make Strings only when called.
+    public class StreamToken {
+        // elements
+        public int code;
+        public int line;
+        public int column;
+        public long start;          // source position of the first lexeme char
+        public int length;          // lexeme length, after truncation
+        public int intValue;        // parsed value of an INTEGER token
+        public double floatValue;   // parsed value of a FLOAT token
+        public int symbolIndex;     // where the lexer found or added it in the symbol table, -1 if not a symbol
+
+        // lexeme without copying it
+        public CharSequence lexeme() {
+            return lexemeText();
+        }
+
+        public String lexemeString() {
+            return Lexical.this.lexemeString();
+        }
+
+        public String mnemonic() {
+            return mnemonicFor(code);
+        }
+    }
+    private StreamToken streamToken = new StreamToken();
 
     // [ MAIN TOKEN CLASS USED THROUGHOUT ]
     // token class is declared here, no accessors needed
@@ -98,11 +277,15 @@ public class Lexical {
         public String lexeme;
         public int code;
         public String mnemonic;
+        public int intValue;        // parsed value of an INTEGER token
+        public double floatValue;   // parsed value of a FLOAT token
+        public int symbolIndex;     // where the lexer found or added it in the symbol table, -1 if not a symbol
         // constructor
         token() {
             lexeme = "";
             code = 0;
             mnemonic = "";
+            symbolIndex = -1;
         }
     }
 
@@ -111,6 +294,11 @@ public class Lexical {
         return EOF;
     }
 
+    // Line number of the current character, for diagnostics
+    public int getLineCount() {
+        return lineCount;
+    }
+
     // DEBUG enabler, turns on token printing inside of GetNextToken
     public void setPrintToken(boolean on) {
         printToken = on;
@@ -118,7 +306,7 @@ public class Lexical {
 
     /* @@@ */
     // RESERVE WORDS
-    private void initReserveWords(ReserveTable reserveWords) {
+    private static ReserveTable initReserveWords(ReserveTable reserveWords) {
         // Named reserve words
         reserveWords.Add("GO_TO", 0);
         reserveWords.Add("INTEGER", 1);
@@ -167,11 +355,12 @@ public class Lexical {
         reserveWords.Add("]", 46);
         reserveWords.Add(":", 47);
         reserveWords.Add(".", 48);
+        return reserveWords;
     }
 
     /* @@@ */
     // add 5-character student created mnemonics corresponding to reserve values (and others)
-    private void initMnemonics(ReserveTable mnemonics) {
+    private static ReserveTable initMnemonics(ReserveTable mnemonics) {
         mnemonics.Add("GOTO_", 0);
         mnemonics.Add("INTGR", 1);
         mnemonics.Add("TO___", 2);
@@ -228,16 +417,69 @@ public class Lexical {
 
         // unknown
         mnemonics.Add("UNKWN", 99);
+        return mnemonics;
     }
 
-    // Character category for alphabetic chars, upper and lower case
-    private boolean isLetter(char ch) {
-        return (((ch >= 'A') && (ch <= 'Z')) || ((ch >= 'a') && (ch <= 'z')));
+    // character class table for the DFA, indexed by 7-bit char
+    private static byte[] initCharClasses() {
+        byte[] classes = new byte[128];
+        for (char ch = 'A'; ch <= 'Z'; ch++) {
+            classes[ch] = C_LETTER;
+            classes[Character.toLowerCase(ch)] = C_LETTER;
+        }
+        classes['E'] = C_E;
+        classes['e'] = C_E;
+        for (char ch = '0'; ch <= '9'; ch++) {
+            classes[ch] = C_DIGIT;
+        }
+        classes['|'] = C_IDPUNCT;
+        classes['_'] = C_IDPUNCT;
+        classes['.'] = C_DOT;
+        classes['+'] = C_SIGN;
+        classes['-'] = C_SIGN;
+        classes[':'] = C_PREFIX;
+        classes['<'] = C_PREFIX;
+        classes['>'] = C_GREATER;
+        classes['='] = C_EQUALS;
+        return classes;
     }
 
-    // Character category for 0..9
-    private boolean isDigit(char ch) {
-        return ((ch >= '0') && (ch <= '9'));
+    // transition table [state][class] -> next state, S_STOP where the token ends
+    private static int[][] initTransitions() {
+        int[][] dfa = new int[STATE_COUNT][CLASS_COUNT];
+        for (int[] row : dfa) {
+            Arrays.fill(row, S_STOP);
+        }
+        // first char picks the kind of token, anything unclaimed is a single char token
+        Arrays.fill(dfa[S_START], S_SINGLE);
+        dfa[S_START][C_LETTER] = S_IDENT;
+        dfa[S_START][C_E] = S_IDENT;
+        dfa[S_START][C_DIGIT] = S_INT;
+        dfa[S_START][C_PREFIX] = S_PREFIX;
+        dfa[S_START][C_GREATER] = S_PREFIX;
+        // identifiers
+        dfa[S_IDENT][C_LETTER] = S_IDENT;
+        dfa[S_IDENT][C_E] = S_IDENT;
+        dfa[S_IDENT][C_DIGIT] = S_IDENT;
+        dfa[S_IDENT][C_IDPUNCT] = S_IDENT;
+        // <digit>+[.<digit>*[E[+|-]<digit>+]]
+        dfa[S_INT][C_DIGIT] = S_INT;
+        dfa[S_INT][C_DOT] = S_FRACTION;
+        dfa[S_FRACTION][C_DIGIT] = S_FRACTION;
+        dfa[S_FRACTION][C_E] = S_EXP;
+        dfa[S_EXP][C_SIGN] = S_EXP_SIGN;
+        dfa[S_EXP][C_DIGIT] = S_EXP_DIGITS;
+        dfa[S_EXP_SIGN][C_DIGIT] = S_EXP_DIGITS;
+        dfa[S_EXP_DIGITS][C_DIGIT] = S_EXP_DIGITS;
+        // 2-char tokens
+        dfa[S_PREFIX][C_EQUALS] = S_TWO;
+        dfa[S_PREFIX][C_GREATER] = S_TWO;
+        return dfa;
+    }
+
+    // Character class of ch for the DFA, anything outside 7-bit ASCII is C_OTHER
+    private int classOf(char ch) {
+        return (ch < 128) ? CHAR_CLASS[ch] : C_OTHER;
     }
 
     // Category for any whitespace to be skipped over
@@ -253,6 +495,10 @@ public class Lexical {
         char result = ' ';
         if ((needLine) || (EOF)) {
             result = ' '; //at end of line, so nothing
+        } else if (source != null) {
+            if ((bufPos < source.length()) && (!isLineEnd(source.charAt(bufPos)))) {
+                result = source.charAt(bufPos);
+            }
         } else //
         {
             if ((linePos + 1) < line.length()) { //have a char to peek
@@ -267,25 +513,84 @@ public class Lexical {
     private void GetNextLine() {
         try {
             line = bufferedreader.readLine();  //returns a null string when EOF
-            if ((line != null) && (echo)) {
+            if (line != null) {
                 lineCount++;
-                System.out.println(String.format("%04d", lineCount) + " " + line);
+                if (echo) {
+                    System.out.println(String.format("%04d", lineCount) + " " + line);
+                }
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
         if (line == null) {    // The readLine returns null at EOF, set flag
             EOF = true;
+            closeReader();     // nothing more to read, don't hold the file open
         }
         linePos = -1;      // reset vars for new line if we have one
         needLine = false;  // we have one, no need
         //the line is ready for the next call to get a char with GetNextChar
     }
 
+    // true for either line terminator found in the mapped buffer
+    private boolean isLineEnd(char ch) {
+        return ((ch == '\n') || (ch == '\r'));
+    }
+
+    // Mapped version of GetNextLine, the line is not copied out of the buffer; bufPos
+    // is already at its first char. Only the echo needs the line as a String.
+    private void GetNextBufferLine() {
+        if (bufPos >= source.length()) {
+            EOF = true;
+        } else {
+            lineCount++;
+            lineStart = bufPos;
+            if (echo) {
+                long lineEnd = bufPos;
+                while ((lineEnd < source.length()) && (!isLineEnd(source.charAt(lineEnd)))) {
+                    lineEnd++;
+                }
+                System.out.println(String.format("%04d", lineCount) + " " + source.substring(bufPos, lineEnd));
+            }
+        }
+        needLine = false;
+    }
+
+    // Mapped version of GetNextChar, same results as reading by line: a \n at
+    // the end of each line (\n, \r or \r\n) and at EOF
+    private char GetNextBufferChar() {
+        char result;
+        if (needLine) {
+            GetNextBufferLine();
+        }
+        if (EOF) {
+            result = '\n';
+            needLine = false;
+        } else if (bufPos < source.length()) {
+            result = source.charAt(bufPos);
+            bufPos++;
+            if (isLineEnd(result)) {
+                // swallow the \n of a \r\n pair
+                if ((result == '\r') && (bufPos < source.length()) && (source.charAt(bufPos) == '\n')) {
+                    bufPos++;
+                }
+                result = '\n';
+                needLine = true;
+            }
+        } else {
+            // last line had no terminator
+            result = '\n';
+            needLine = true;
+        }
+        return result;
+    }
+
     // Returns the next character in the input file, returning a
     // /n newline character at the end of each input line or at EOF
     public char GetNextChar() {
         char result;
+        if (source != null) {
+            return GetNextBufferChar();
+        }
         if (needLine) //ran out last time we got a char, so get a new line
         {
             GetNextLine();
@@ -314,44 +619,69 @@ public class Lexical {
         // if this is the start of a comment...
         if (curr == comment_start1) {
             curr = GetNextChar();
-            // loop until the end of comment or EOF is reached
-            while ((curr != comment_end1) && (!EOF)) {
-                curr = GetNextChar();
-            }
-            // if the file ended before the comment terminated
-            if (EOF) {
-                System.out.println("WARNING: Comment not terminated before End Of File");
-            } else {
-                // keep getting the next char
-                curr = GetNextChar();
-            }
+            curr = finishBraceComment(curr);
         } else {
             // this is for the 2-character comment start, different start/end
             if ((curr == comment_start2) && (PeekNextChar() == comment_startend)) {
                 curr = GetNextChar(); // get the second
                 curr = GetNextChar(); // into comment or end of comment
-                //while comment end is not reached
-                while ((!((curr == comment_startend) && (PeekNextChar() == comment_end2))) && (!EOF)) {
-                    curr = GetNextChar();
-                }
-                // EOF before comment end
-                if (EOF) {
-                    System.out.println("WARNING: Comment not terminated before End Of File");
-                } else {
-                    curr = GetNextChar();          //must move past close
-                    curr = GetNextChar();          //must get following
-                }
+                curr = finishParenComment(curr);
             }
 
         }
         return (curr);
     }
 
+    // rest of a { } comment, curr is the first char inside it
+    private char finishBraceComment(char curr) {
+        // loop until the end of comment or EOF is reached
+        while ((curr != comment_end1) && (!EOF)) {
+            skipUntil(comment_end1);
+            curr = GetNextChar();
+        }
+        // if the file ended before the comment terminated
+        if (EOF) {
+            openComment = IN_BRACE_COMMENT;
+            commentWarning();
+        } else {
+            // keep getting the next char
+            curr = GetNextChar();
+        }
+        return curr;
+    }
+
+    // rest of a (* *) comment, curr is the first char inside it
+    private char finishParenComment(char curr) {
+        //while comment end is not reached
+        while ((!((curr == comment_startend) && (PeekNextChar() == comment_end2))) && (!EOF)) {
+            skipUntil(comment_startend);
+            curr = GetNextChar();
+        }
+        // EOF before comment end
+        if (EOF) {
+            openComment = IN_PAREN_COMMENT;
+            commentWarning();
+        } else {
+            curr = GetNextChar();          //must move past close
+            curr = GetNextChar();          //must get following
+        }
+        return curr;
+    }
+
+    // a chunk of a bigger source can end inside a comment without it being an error, the
+    // whole-file lexer decides (see ParallelLexer)
+    private void commentWarning() {
+        if (warningLog == null) {
+            System.out.println("WARNING: Comment not terminated before End Of File");
+        }
+    }
+
     //reads past any white space, blank lines, comments
     public char skipWhiteSpace() {
 
         do {
             while ((isWhitespace(currCh)) && (!EOF)) {
+                skipBlanks();
                 currCh = GetNextChar();
             }
             currCh = skipComment(currCh);
@@ -359,11 +689,6 @@ public class Lexical {
         return currCh;
     }
 
-    // returns TRUE if ch is a prefix to a 2-character token like := or <=
-    private boolean isPrefix(char ch) {
-        return ((ch == ':') || (ch == '<') || (ch == '>'));
-    }
-
     // returns TRUE if ch is the string delimiter
     private boolean isStringStart(char ch) {
         return ch == '"';
@@ -374,187 +699,269 @@ public class Lexical {
     /* ---------------------------------
      * -LEXICAL STUDENT CREATED METHODS-
      * -------------------------------- */
-    // identifiers
-    private token getIdent() {
-
-        // initialize token
-        token result = new token();
-        result.lexeme = "";
-
-        // identifier consisting of letter, digit, |, or _
-        while (isLetter(currCh) || isDigit(currCh) || currCh == '|' || currCh == '_'){
-            result.lexeme += currCh;
-            currCh = GetNextChar();
-        }
-
-        // check if reserve word, get code if so
-        result.code = reserveWords.LookupName(result.lexeme);
-        if (result.code == reserveWords.notFound){
-            result.code = IDENT_ID;
-        }
-
-        // return resulting token
-        return result;
-
-    } // getIdent
-
-
-    // Get Number is an integer or double (can also be E form)
-    /* <digit>+[.<digit>*[E[+|-]<digit>+]] */
-    private token getNumber() {
-
-        // initialize token
-        token result = new token();
-        result.lexeme = "";
-
-        /* --------START OF REGEX---------- */
-        // <digit>+ (is 1 or more because first read has to be digit to enter getNumber())
-        while (isDigit(currCh)){
-            result.lexeme += currCh;
-            currCh = GetNextChar();
-        }
-
-        // [.<digit>*
-        if (currCh == '.') {
-            result.lexeme += currCh;
-            currCh = GetNextChar();
-            while (isDigit(currCh)) {
-                result.lexeme += currCh;
-                currCh = GetNextChar();
+    // DFA scanner for identifiers, numbers and 1/2-char tokens (replaces getIdent, getNumber
+    // and getOneTwoChar). Starting from S_START, take currCh while the transition table has a
+    // next state, then the state it stopped in decides the token code.
+    private int getDFAToken() {
+        int code;
+
+        startLexeme();
+        int state = S_START;
+        int next = DFA[state][classOf(currCh)];
+        while (next != S_STOP) {
+            if ((next >= S_INT) && (next <= S_EXP_DIGITS)) {    // numeric states only
+                accumulateNumber(next);
             }
+            takeChar();
+            state = next;
+            next = DFA[state][classOf(currCh)];
+        }
 
-            // [E
-            if (Character.toLowerCase(currCh) == 'e'){
-                result.lexeme += currCh;
-                currCh = GetNextChar();
-
-                // [+|-]
-                if (currCh == '+' | currCh == '-') {
-                    result.lexeme += currCh;
-                    currCh = GetNextChar();
-
+        // accepting state -> token code
+        switch (state) {
+            case S_IDENT:
+                // check if reserve word, get code if so
+                code = keywords.Lookup(lexemeText());
+                if (code == keywords.notFound) {
+                    code = IDENT_ID;
                 }
-
-                    // <digit>+]] (need if to get first digit of the 1 or more)
-                    if (isDigit(currCh)){
-                        result.lexeme += currCh;
-                        currCh = GetNextChar();
-                        while (isDigit(currCh)){
-                            result.lexeme += currCh;
-                            currCh = GetNextChar();
-                        }
-
-                    // ERROR - expected one digit after [+|-]
-                    }
-
-            } // [E
-        } // [.<digit>*
-        /* --------END OF REGEX---------- */
-
-        // check resulting lexeme and set token code
-        if (integerOK(result.lexeme)){
-            result.code = INTEGER_ID;
-        } else if (doubleOK(result.lexeme)){
-            result.code = FLOAT_ID;
-        } else {
-            // error - place unknown ID.
-            result.code = UNKNOWN_ID;
+                break;
+            case S_INT:
+                // too many digits for an int still reads as a double
+                if (intOverflow) {
+                    code = FLOAT_ID;
+                    tokFloat = numberValue();
+                } else {
+                    code = INTEGER_ID;
+                    tokInteger = (int) mantissa;
+                }
+                break;
+            case S_FRACTION:
+            case S_EXP_DIGITS:
+                code = FLOAT_ID;
+                tokFloat = numberValue();
+                break;
+            case S_EXP:
+            case S_EXP_SIGN:
+                // error - expected a digit after E[+|-]
+                code = UNKNOWN_ID;
+                break;
+            default:
+                // check if reserve word single token, get code if so
+                code = keywords.Lookup(lexemeText());
+                if (code == keywords.notFound) {
+                    code = UNKNOWN_ID;
+                }
+                break;
         }
 
-        // return token
-        return result;
-
-    } // getNumber()
+        // return resulting token code
+        return code;
 
+    } // getDFAToken
 
 
     // get string needs to skip the first and last to remove quotations from a string
-    private token getString() {
+    private int getString() {
 
-        // initialize token
-        token result = new token();
-        result.lexeme = "";
-
-        // need to skip past first quote
+        // lexeme starts after the first quote
+        startLexeme();
         currCh = GetNextChar();
+        tokStart++;
 
         while (currCh != '"'){
-            result.lexeme += currCh;
-            currCh = GetNextChar();
-
             // error - if unending string is found.
             if (currCh == '\n'){
-                System.out.println("WARNING: Unterminated string found.");
-                result.code = UNKNOWN_ID;
-                return result;
+                warning("WARNING: Unterminated string found.");
+                return UNKNOWN_ID;
             }
+            takeRun('"');
         }
 
         // need to skip past last quote
         currCh = GetNextChar();
 
         // set as stringID in the case that string is closed
-        result.code = STRING_ID;
+        return STRING_ID;
+    }
 
-        // return token
-        return result;
+    // prints a warning, or logs it against the token it belongs to
+    private void warning(String message) {
+        if (warningLog == null) {
+            System.out.println(message);
+        } else {
+            warningLog.add(message);
+            warningTokens.add(tokenCount);
+        }
     }
 
+    // numeric part of the DFA: currCh is about to be taken moving into [state]. Builds the
+    // value as the digits go by, so numbers never need parseInt / parseDouble (or their exceptions).
+    private void accumulateNumber(int state) {
+        int digit = currCh - '0';
+        switch (state) {
+            case S_INT:
+                if (mantissaDigits < 18) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) {
+                        mantissaDigits++;
+                    }
+                } else {
+                    scale++;    // digit dropped, mantissa is already exact to double precision
+                }
+                if (mantissa > Integer.MAX_VALUE) {
+                    intOverflow = true;
+                }
+                break;
+            case S_FRACTION:
+                if ((currCh != '.') && (mantissaDigits < 18)) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) {
+                        mantissaDigits++;
+                    }
+                    scale--;
+                }
+                break;
+            case S_EXP_SIGN:
+                exponentNegative = (currCh == '-');
+                break;
+            case S_EXP_DIGITS:
+                if (exponent < 100000) {
+                    exponent = exponent * 10 + digit;
+                }
+                break;
+            default:
+                break;  // the E itself
+        }
+    }
 
-    // Everything that is not above runs getOneTwoChar. Even unknown characters come here.
-    private token getOneTwoChar() {
+    // value of the number just scanned; exact powers of ten cover the usual constants, anything
+    // beyond double's exact range goes to parseDouble, which cannot fail on a lexeme the DFA accepted
+    private double numberValue() {
+        int power = scale + (exponentNegative ? -exponent : exponent);
+        if ((mantissa < (1L << 53)) && (power >= -22) && (power <= 22)) {
+            return (power < 0) ? mantissa / POWERS_OF_10[-power] : mantissa * POWERS_OF_10[power];
+        }
+        return Double.parseDouble(lexemeString());
+    }
 
-        // initialize token
-        token result = new token();
-        result.lexeme = "";
+    // begins a new lexeme at currCh
+    private void startLexeme() {
+        mantissa = 0;
+        mantissaDigits = 0;
+        scale = 0;
+        exponent = 0;
+        exponentNegative = false;
+        intOverflow = false;
+        tokInteger = 0;
+        tokFloat = 0.0;
+        tokSymbol = -1;
+        tokLength = 0;
+        tokString = null;
+        tokLine = lineCount;
+        if (source != null) {
+            tokStart = bufPos - 1;
+            tokColumn = (int) (tokStart - lineStart) + 1;
+        } else {
+            lexBuf.setLength(0);
+            tokStart = linePos;
+            tokColumn = linePos + 1;
+        }
+    }
 
-        // Two Char Token
-        if (isPrefix(currCh)){
-            if ((PeekNextChar() == '=') || (PeekNextChar() == '>')){
-                result.lexeme += currCh;
-                currCh = GetNextChar();
-                result.lexeme += currCh;
-                currCh = GetNextChar();
+    // adds currCh to the lexeme and moves on; from a source buffer the lexeme is
+    // just a range, so nothing is copied
+    private void takeChar() {
+        if (source == null) {
+            lexBuf.append(currCh);
+        }
+        tokLength++;
+        currCh = GetNextChar();
+    }
 
-            // single character (but could have been prefix)
-            } else {
-                result.lexeme += currCh;
-                currCh = GetNextChar();
-            }
+    // takeChar for a whole run: takes currCh and every char after it up to the next [stop] or
+    // line end, which becomes the new currCh
+    private void takeRun(char stop) {
+        int from = linePos + 1;
+        int count = skipUntil(stop);
+        if (source == null) {
+            lexBuf.append(currCh).append(line, from, from + count);
+        }
+        tokLength += count + 1;
+        currCh = GetNextChar();
+    }
+
+    // Bulk form of calling GetNextChar while it returns neither [target] nor a line end: passes
+    // that run of chars in the current line in one go (the source buffer scans several at a time,
+    // a line uses indexOf), so the next GetNextChar returns the char that stopped it. Returns the
+    // number of chars passed. Line ends are never passed, so line counts and echo are unchanged.
+    private int skipUntil(char target) {
+        if ((needLine) || (EOF)) {
+            return 0;
+        }
+        if (source != null) {
+            long stop = source.indexOfLineEndOr(bufPos, target);
+            int count = (int) (stop - bufPos);
+            bufPos = stop;
+            return count;
+        }
+        int stop = line.indexOf(target, linePos + 1);
+        if (stop < 0) {
+            stop = line.length();
+        }
+        int count = stop - (linePos + 1);
+        linePos = stop - 1;
+        return count;
+    }
 
-        // one-char token (known and unknown)
+    // same for a run of blanks and tabs
+    private void skipBlanks() {
+        if ((needLine) || (EOF)) {
+            return;
+        }
+        if (source != null) {
+            bufPos = source.indexOfNonBlank(bufPos);
         } else {
-            result.lexeme += currCh;
-            currCh = GetNextChar();
+            while ((linePos + 1 < line.length()) && ((line.charAt(linePos + 1) == ' ') || (line.charAt(linePos + 1) == '\t'))) {
+                linePos++;
+            }
         }
+    }
 
-        // check if reserve word single token, get code if so
-        result.code = reserveWords.LookupName(result.lexeme);
-        if (result.code == reserveWords.notFound){
-            result.code = UNKNOWN_ID;
+    // the current lexeme without copying it
+    private CharSequence lexemeText() {
+        if (source != null) {
+            return lexView.set(tokStart, tokLength);
         }
+        return lexBuf;
+    }
 
-        return result;
+    // the current lexeme as a String, made once per token
+    private String lexemeString() {
+        if (tokString == null) {
+            tokString = lexemeText().toString();
+        }
+        return tokString;
     }
 
     // checks if the token needs to be truncated.
-    public token checkTruncate(token result) {
+    private void checkTruncate() {
         // truncate long lexemes, validate doubles and integers
-        // handle appropriate types and add to symbol table as needed
-        switch (result.code) {
+        switch (tokCode) {
             case IDENT_ID:
-                if (result.lexeme.length() > MAX_IDENT){
-                    result.lexeme = result.lexeme.substring(0, MAX_IDENT);
-                    truncated = true;
-                    System.out.println("WARNING: Identifier Truncated, greater than length 30. New: " + result.lexeme);
+                if (tokLength > MAX_IDENT){
+                    shortenLexeme(MAX_IDENT);
+                    warning("WARNING: Identifier Truncated, greater than length 30. New: " + lexemeString());
                 }
                 break;
             case INTEGER_ID:
             case FLOAT_ID:
-                if (result.lexeme.length() > MAX_NUMBER){
-                    result.lexeme = result.lexeme.substring(0, MAX_NUMBER);
-                    System.out.println("WARNING: Identifier Truncated, greater than length 9. New: " + result.lexeme);
-                    truncated = true;
+                if (tokLength > MAX_NUMBER){
+                    // a cut off number goes in the table as 0
+                    tokInteger = 0;
+                    tokFloat = 0.0;
+                    shortenLexeme(MAX_NUMBER);
+                    warning("WARNING: Identifier Truncated, greater than length 9. New: " + lexemeString());
                 }
                 break;
             case STRING_ID:
@@ -563,7 +970,47 @@ public class Lexical {
             default:
                 break; // default, don't add - no truncation needed.
         }
-        return result;
+    }
+
+    // cuts the current lexeme down to its first [length] chars
+    private void shortenLexeme(int length) {
+        tokLength = length;
+        lexBuf.setLength(Math.min(lexBuf.length(), length));
+        tokString = null;
+    }
+
+    // handle appropriate types and add to symbol table as needed
+    private void addSymbol() {
+        if (saveSymbols != null) {
+            tokSymbol = addSymbol(saveSymbols, tokCode, lexemeText(), tokInteger, tokFloat);
+        }
+    }
+
+    // adds an identifier or constant token to [symbols] (other codes are ignored) and returns its
+    // row, -1 if none. Shared by the lexer and by ParallelLexer,
+    // which adds the symbols of all its chunks afterwards, in order.
+    static int addSymbol(SymbolTable symbols, int code, CharSequence lexeme, int intValue, double floatValue) {
+        if ((code != IDENT_ID) && (code != INTEGER_ID) && (code != FLOAT_ID) && (code != STRING_ID)) {
+            return -1;
+        }
+        // constants are pooled by value (truncated numbers already have a 0 value); the lexeme only
+        // becomes a String when the value is new
+        if (code == INTEGER_ID){
+            return symbols.AddConstant(intValue, lexeme);
+        } else if (code == FLOAT_ID){
+            return symbols.AddConstant(floatValue, lexeme);
+        } else if (code == STRING_ID){
+            return symbols.AddConstant(lexeme);
+        }
+
+        // already in the table: nothing to add, and no lexeme String needed to find that out
+        int existing = symbols.LookupSymbol(lexeme);
+        if (existing >= 0) {
+            return existing;
+        }
+
+        // STUDENT CREATED SYMBOL TABLE BELOW.
+        return symbols.AddSymbol(symbols.intern(lexeme), 'V', 0);
     }
     // END OF STUDENT CREATED METHODS
     //@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
@@ -605,68 +1052,131 @@ public class Lexical {
 
 
 
+    // given a token code, return its mnemonic
+    public String mnemonicFor(int code) {
+        return mnemonics.LookupCode(code);
+    }
+
+
+
     /* ----------------------
      *  MAIN LEXICAL METHOD *
      * -------------------- */
-    public token GetNextToken() {
-        // init truncated flag and get token
-        truncated = false;
-        token result = new token();
-
+    // scans the next token into tokCode / tokStart / tokLength, adding it to the symbol
+    // table as needed. False once the input is used up.
+    private boolean ScanToken() {
         currCh = skipWhiteSpace();
-        if (isLetter(currCh)) { //is ident
-            result = getIdent();
-        } else if (isDigit(currCh)) { //is numeric
-            result = getNumber();
-        } else if (isStringStart(currCh)) { //string literal
-            result = getString();
+        if (EOF) {
+            return false;       // nothing left to scan (and no lexeme to start on an empty source)
+        }
+        if (isStringStart(currCh)) { //string literal
+            tokCode = getString();
         } else {
-            // default character check
-            result = getOneTwoChar();
+            // identifiers, numbers, 1 and 2 char tokens, unknown characters
+            tokCode = getDFAToken();
         }
+        // a token may be empty: "" is an empty STRING, and a quote alone at the end of a line is
+        // an UNKNOWN (already warned about). Only the EOF check above ends the input.
 
-        if ((result.lexeme.equals("")) || (EOF)) {
-            result = null;
+        // truncate if needed
+        checkTruncate();
+        addSymbol();
+        tokenCount++;
+
+        // print token if print is on
+        if (printToken) {
+            System.out.println("\t" + mnemonicFor(tokCode) + " | \t" + String.format("%04d", tokCode) + " | \t" + lexemeString());
         }
+        return true;
+    }
 
+    public token GetNextToken() {
+        token result = null;
+
+        if (ScanToken()) {
+            result = new token();
+            result.code = tokCode;
+            result.lexeme = lexemeString();
+            result.mnemonic = mnemonicFor(tokCode);
+            result.intValue = tokInteger;
+            result.floatValue = tokFloat;
+            result.symbolIndex = tokSymbol;
+        }
 
-        if (result != null) {
+        // result is next token.
+        return result;
 
-            // set the mnemonic
-            result.mnemonic = mnemonics.LookupCode(result.code);
+    } // getNextToken
 
-            // truncate if needed
-            result = checkTruncate(result);
+    // Pull-based alternative to GetNextToken: fills and returns the same StreamToken every
+    // call (null at EOF). Reading from a source buffer, tokens that are already in the symbol
+    // table are lexed without allocating anything.
+    public StreamToken GetNextStreamToken() {
+        if (!ScanToken()) {
+            return null;
+        }
+        streamToken.code = tokCode;
+        streamToken.line = tokLine;
+        streamToken.column = tokColumn;
+        streamToken.start = tokStart;
+        streamToken.length = tokLength;
+        streamToken.intValue = tokInteger;
+        streamToken.floatValue = tokFloat;
+        streamToken.symbolIndex = tokSymbol;
+        return streamToken;
+    }
 
-            // STUDENT CREATED SYMBOL TABLE BELOW.
-            // set symbol table
-            if (result.code == IDENT_ID){
-                saveSymbols.AddSymbol(result.lexeme, 'V', 0);
-            } else if (result.code == INTEGER_ID){
-                if (truncated){
-                    saveSymbols.AddSymbol(result.lexeme, 'C', 0);
-                } else {
-                    saveSymbols.AddSymbol(result.lexeme, 'C', Integer.parseInt(result.lexeme));
-                }
-            } else if (result.code == FLOAT_ID){
-                if (truncated){
-                    saveSymbols.AddSymbol(result.lexeme, 'C', 0.0);
-                } else {
-                    saveSymbols.AddSymbol(result.lexeme, 'C', Double.parseDouble(result.lexeme));
-                }
-            } else if (result.code == STRING_ID){
-                saveSymbols.AddSymbol(result.lexeme, 'C', result.lexeme);
-            }
+    // Lexes everything left in the input into a TokenStream in one pass: primitive arrays
+    // per token, lexemes and mnemonics are only made if asked for. Needs a source buffer
+    // (mapped or in-memory input), since that is where the lexemes are read back from.
+    public TokenStream Tokenize() {
+        if ((source == null) || (source.length() > Integer.MAX_VALUE)) {
+            System.out.println("An error occurred. Tokenize needs mapped or in-memory input under 2 GB!");
+            return null;
+        }
+        TokenStream result = new TokenStream(this, source);
+        while (ScanToken()) {
+            result.Add(tokCode, (int) tokStart, tokLength, tokLine, tokColumn,
+                    (tokCode == INTEGER_ID) ? tokInteger : tokFloat, tokSymbol);
+        }
+        return result;
+    }
 
-            // print token if print is on
-            if (printToken) {
-                System.out.println("\t" + result.mnemonic + " | \t" + String.format("%04d", result.code) + " | \t" + result.lexeme);
-            }
+    // incremental lexing: starts over on [input] from its first char, reusing the tables
+    void reset(SourceBuffer input) {
+        setSource(input);
+        lineCount = 0;
+        needLine = true;
+        linePos = -1;
+        openComment = IN_CODE;
+        tokenCount = 0;
+        if (warningLog != null) {
+            warningLog.clear();
+            warningTokens.clear();
         }
+        EOF = false;
+        currCh = GetNextChar();
+    }
 
-        // result is next token.
-        return result;
+    // incremental lexing: true when scanning can restart at a token of [code]. Strings are
+    // stored without the opening quote (as are unterminated ones, which come out UNKNOWN),
+    // so lexing from their stored start would begin inside the string.
+    static boolean canRestartAt(int code) {
+        return (code != STRING_ID) && (code != UNKNOWN_ID);
+    }
 
-    } // getNextToken
+    // chunk lexing: start out inside a comment that began before this input
+    void resumeComment(int state) {
+        if (state == IN_BRACE_COMMENT) {
+            currCh = finishBraceComment(currCh);
+        } else if (state == IN_PAREN_COMMENT) {
+            currCh = finishParenComment(currCh);
+        }
+    }
+
+    // chunk lexing: comment still open when the input ran out (IN_CODE if none)
+    int openComment() {
+        return openComment;
+    }
 
 } // lexical
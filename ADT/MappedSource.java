@@ -0,0 +1,145 @@
+/*
+ * Mapped Source: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: SourceBuffer over a memory-mapped file. The file is mapped in fixed size windows
+ *          (a single MappedByteBuffer is limited to 2 GB) and read one byte per character,
+ *          so sources are expected to be plain ASCII / single-byte text. The lexer's bulk scans
+ *          test 8 bytes at a time as one long (SWAR).
+ */
+
+package ADT;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/* --------------------------------
+ * ----- MAPPED SOURCE CLASS  -----
+ * -------------------------------- */
+public class MappedSource extends SourceBuffer {
+
+    // SWAR constants: a byte repeated across a long
+    static final long ONES = 0x0101010101010101L;
+    static final long LOW_7 = 0x7F7F7F7F7F7F7F7FL;
+    static final long NEWLINES = ONES * '\n';
+    static final long RETURNS = ONES * '\r';
+    static final long BLANKS = ONES * ' ';
+    static final long TABS = ONES * '\t';
+
+    // window size is 1 GB, so a position splits into (window, offset) with a shift and a mask
+    static final int WINDOW_SHIFT = 30;
+    static final long WINDOW_SIZE = 1L << WINDOW_SHIFT;
+    static final long WINDOW_MASK = WINDOW_SIZE - 1;
+
+    // elements
+    MappedByteBuffer[] windows;
+    long size;
+
+    // constructor - maps the whole file read-only, the channel can be closed once mapped
+    public MappedSource(String filename) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+            size = channel.size();
+            int count = (int) ((size + WINDOW_SIZE - 1) >>> WINDOW_SHIFT);
+            windows = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << WINDOW_SHIFT;
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+            }
+        }
+    }
+
+    public long length() {
+        return size;
+    }
+
+    public char charAt(long pos) {
+        return (char) (windows[(int) (pos >>> WINDOW_SHIFT)].get((int) (pos & WINDOW_MASK)) & 0xFF);
+    }
+
+    // bulk copy when the range sits in one window, the usual case
+    public String substring(long start, long end) {
+        int window = (int) (start >>> WINDOW_SHIFT);
+        if ((end > start) && (window == (int) ((end - 1) >>> WINDOW_SHIFT))) {
+            byte[] bytes = new byte[(int) (end - start)];
+            windows[window].get((int) (start & WINDOW_MASK), bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        return super.substring(start, end);
+    }
+
+    // 8 bytes at a time for [target], \n or \r, then byte by byte for the rest of the window
+    public long indexOfLineEndOr(long from, char target) {
+        if (target > 0xFF) {
+            return super.indexOfLineEndOr(from, target);
+        }
+        long targets = ONES * target;
+        long pos = from;
+        while (pos < size) {
+            MappedByteBuffer window = windows[(int) (pos >>> WINDOW_SHIFT)];
+            int offset = (int) (pos & WINDOW_MASK);
+            int limit = window.limit();
+            while (offset + 8 <= limit) {
+                long word = window.getLong(offset);
+                long found = zeroBytes(word ^ targets) | zeroBytes(word ^ NEWLINES) | zeroBytes(word ^ RETURNS);
+                if (found != 0) {
+                    return pos + (Long.numberOfLeadingZeros(found) >>> 3);
+                }
+                offset += 8;
+                pos += 8;
+            }
+            while (offset < limit) {
+                int ch = window.get(offset) & 0xFF;
+                if ((ch == target) || (ch == '\n') || (ch == '\r')) {
+                    return pos;
+                }
+                offset++;
+                pos++;
+            }
+        }
+        return size;
+    }
+
+    // 8 bytes at a time for anything but a blank or tab
+    public long indexOfNonBlank(long from) {
+        long pos = from;
+        while (pos < size) {
+            MappedByteBuffer window = windows[(int) (pos >>> WINDOW_SHIFT)];
+            int offset = (int) (pos & WINDOW_MASK);
+            int limit = window.limit();
+            while (offset + 8 <= limit) {
+                long word = window.getLong(offset);
+                long other = ~(zeroBytes(word ^ BLANKS) | zeroBytes(word ^ TABS)) & ~LOW_7;
+                if (other != 0) {
+                    return pos + (Long.numberOfLeadingZeros(other) >>> 3);
+                }
+                offset += 8;
+                pos += 8;
+            }
+            while (offset < limit) {
+                int ch = window.get(offset) & 0xFF;
+                if ((ch != ' ') && (ch != '\t')) {
+                    return pos;
+                }
+                offset++;
+                pos++;
+            }
+        }
+        return size;
+    }
+
+    // high bit set in each byte of [word] that is zero, and only those: no carry crosses a byte,
+    // so with the buffer's big-endian longs the leading set bit is the first matching byte
+    private static long zeroBytes(long word) {
+        return ~(((word & LOW_7) + LOW_7) | word | LOW_7);
+    }
+
+    // mappings are released by the garbage collector, drop our references so they can be
+    public void close() {
+        windows = new MappedByteBuffer[0];
+        size = 0;
+    }
+}
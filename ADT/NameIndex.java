@@ -0,0 +1,147 @@
+/*
+ * Name Index: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Case-insensitive hash index from a name to a table row, for tables that used to find a
+ *          name by scanning every row with compareToIgnoreCase. Open addressing over a power of two
+ *          number of slots, kept at most half full. Names are folded the way compareToIgnoreCase
+ *          folds them, and any CharSequence can be looked up, so a lexeme does not have to become a
+ *          String first.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ------ NAME INDEX CLASS  -------
+ * -------------------------------- */
+public class NameIndex {
+
+    // elements
+    int elementCount;
+    int mask;
+    String[] keys;      // name in each slot, null if the slot is empty
+    int[] hashes;       // folded hash of the name in the same slot
+    int[] rows;         // row for the name in the same slot
+    int notFound = -1;
+
+    // constructor - sized for about [expected] names before it has to grow
+    public NameIndex(int expected) {
+        int size = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) * 2;
+        mask = size - 1;
+        keys = new String[size];
+        hashes = new int[size];
+        rows = new int[size];
+        elementCount = 0;
+    }
+
+    // look up the [row] given the [name], ignoring case (-1 if dne)
+    public int Lookup(CharSequence name) {
+        int hash = hash(name);
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if ((hashes[slot] == hash) && SymbolTable.equalsIgnoreCase(keys[slot], name)) {
+                return rows[slot];
+            }
+        }
+        return notFound;
+    }
+
+    // Adds [name] for [row]. If the name (in any case) is already there it keeps its first row,
+    // as a scan from the top would find, and false is returned.
+    public boolean Add(String name, int row) {
+        int hash = hash(name);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if ((hashes[slot] == hash) && SymbolTable.equalsIgnoreCase(keys[slot], name)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = name;
+        hashes[slot] = hash;
+        rows[slot] = row;
+        elementCount++;
+        if (elementCount * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    // Binds [name] to [row], replacing the row it had. Returns the replaced row, -1 if the name is new.
+    public int Put(String name, int row) {
+        int hash = hash(name);
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if ((hashes[slot] == hash) && SymbolTable.equalsIgnoreCase(keys[slot], name)) {
+                int replaced = rows[slot];
+                keys[slot] = name;
+                rows[slot] = row;
+                return replaced;
+            }
+        }
+        Add(name, row);
+        return notFound;
+    }
+
+    // Removes [name] (in any case) and returns its row, -1 if dne. The names after it in the same
+    // run of slots move back over the hole, so lookups never need to skip deleted slots.
+    public int Remove(CharSequence name) {
+        int hash = hash(name);
+        int slot = hash & mask;
+        while ((keys[slot] != null)
+                && !((hashes[slot] == hash) && SymbolTable.equalsIgnoreCase(keys[slot], name))) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            return notFound;
+        }
+        int removed = rows[slot];
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            // a name can fill the hole if the hole is between its home slot and where it sits
+            if (((next - hashes[next]) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hashes[hole] = hashes[next];
+                rows[hole] = rows[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        elementCount--;
+        return removed;
+    }
+
+    // number of names held
+    public int Count() {
+        return elementCount;
+    }
+
+    // same folding as compareToIgnoreCase, so names equal ignoring case hash the same
+    private static int hash(CharSequence name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // doubles the slots and places every name again
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldRows = rows;
+        mask = oldKeys.length * 2 - 1;
+        keys = new String[oldKeys.length * 2];
+        hashes = new int[keys.length];
+        rows = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                rows[slot] = oldRows[i];
+            }
+        }
+    }
+}
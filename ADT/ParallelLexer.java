@@ -0,0 +1,169 @@
+/*
+ * Parallel Lexer: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Lexes a large source in chunks on the fork-join pool and stitches the chunks back into one
+ *          TokenStream. Chunks are split at line starts. Tokens and strings never span lines in this
+ *          language, so the only state that crosses a chunk boundary is an open { } or (* *) comment.
+ *          Every chunk is first lexed assuming it starts in code; chunks whose real entry state turns out
+ *          to be inside a comment are lexed again. Symbols are added to the SymbolTable afterwards in
+ *          token order, so the table comes out exactly as a sequential lex would leave it.
+ */
+
+package ADT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/* --------------------------------
+ * ---- PARALLEL LEXER CLASS  -----
+ * -------------------------------- */
+public class ParallelLexer {
+
+    // constants
+    static final long MIN_CHUNK = 64 * 1024;    // smaller chunks cost more in setup than they save
+
+    // elements
+    SourceBuffer source;
+    SymbolTable symbols;
+    int chunkCount;         // chunks used by the last Tokenize
+    int relexCount;         // chunks lexed a second time because they started inside a comment
+
+    // one lexed chunk
+    static class Chunk {
+        long start;
+        int entryState;     // comment state the chunk was lexed from
+        Lexical lex;
+        TokenStream tokens;
+    }
+
+    // constructor
+    public ParallelLexer(SourceBuffer input, SymbolTable symbolTable) {
+        source = input;
+        symbols = symbolTable;
+    }
+
+    // lexes the whole source in up to [chunks] pieces, null on error
+    public TokenStream Tokenize(int chunks) {
+        if (source.length() > Integer.MAX_VALUE) {
+            System.out.println("An error occurred. ParallelLexer sources must be under 2 GB!");
+            return null;
+        }
+        long[] bounds = splitAtLines((int) Math.max(1, Math.min(chunks, source.length() / MIN_CHUNK)));
+        chunkCount = bounds.length - 1;
+        relexCount = 0;
+        Chunk[] results = new Chunk[chunkCount];
+
+        // speculative pass: every chunk assumes it starts outside any comment
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            final long start = bounds[i];
+            final long end = bounds[i + 1];
+            tasks.add(() -> lexChunk(start, end, Lexical.IN_CODE));
+        }
+        try {
+            List<Future<Chunk>> futures = ForkJoinPool.commonPool().invokeAll(tasks);
+            for (int i = 0; i < chunkCount; i++) {
+                results[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println("An error occurred. A chunk of the parallel lex failed!");
+            e.printStackTrace();
+            return null;
+        }
+
+        // the real entry state of each chunk is the exit state of the one before it
+        int state = Lexical.IN_CODE;
+        for (int i = 0; i < chunkCount; i++) {
+            if (results[i].entryState != state) {
+                results[i] = lexChunk(bounds[i], bounds[i + 1], state);
+                relexCount++;
+            }
+            state = results[i].lex.openComment();
+        }
+
+        TokenStream result = stitch(results);
+        if (state != Lexical.IN_CODE) {
+            System.out.println("WARNING: Comment not terminated before End Of File");
+        }
+        return result;
+    }
+
+    // chunks used by the last Tokenize
+    public int GetChunkCount() {
+        return chunkCount;
+    }
+
+    // chunks re-lexed by the last Tokenize because the speculated entry state was wrong
+    public int GetRelexCount() {
+        return relexCount;
+    }
+
+    // chunk boundaries: [count + 1] positions, each inner one just after a \n
+    private long[] splitAtLines(int count) {
+        long[] bounds = new long[count + 1];
+        int used = 1;
+        for (int i = 1; i < count; i++) {
+            long pos = Math.max(source.length() * i / count, bounds[used - 1]);
+            while ((pos < source.length()) && (source.charAt(pos) != '\n')) {
+                pos++;
+            }
+            if (pos + 1 < source.length()) {
+                bounds[used] = pos + 1;
+                used++;
+            }
+        }
+        bounds[used] = source.length();
+        long[] result = new long[used + 1];
+        System.arraycopy(bounds, 0, result, 0, used + 1);
+        return result;
+    }
+
+    // lexes [start, end) with no symbol table and warnings logged instead of printed
+    private Chunk lexChunk(long start, long end, int entryState) {
+        Chunk result = new Chunk();
+        result.start = start;
+        result.entryState = entryState;
+        result.lex = new Lexical(new SourceBuffer.Slice(source, start, end), null, false);
+        result.lex.warningLog = new ArrayList<>();
+        result.lex.warningTokens = new ArrayList<>();
+        result.lex.resumeComment(entryState);
+        result.tokens = result.lex.Tokenize();
+        return result;
+    }
+
+    // joins the chunks in order: positions and lines made absolute, warnings printed and
+    // symbols added where the sequential lexer would have done it
+    private TokenStream stitch(Chunk[] chunks) {
+        TokenStream result = new TokenStream(chunks[0].lex, source);
+        SourceBuffer.View lexeme = new SourceBuffer.View(source);
+        int lineBase = 0;
+        for (Chunk chunk : chunks) {
+            int first = result.Count();
+            result.Append(chunk.tokens, (int) chunk.start, lineBase);
+            lineBase += chunk.lex.getLineCount();
+
+            // symbols and warnings, in token order
+            ArrayList<Integer> warningTokens = chunk.lex.warningTokens;
+            int warning = 0;
+            for (int j = 0; (symbols != null) && (j < chunk.tokens.Count()); j++) {
+                while ((warning < warningTokens.size()) && (warningTokens.get(warning) <= j)) {
+                    System.out.println(chunk.lex.warningLog.get(warning));
+                    warning++;
+                }
+                int i = first + j;
+                result.symbols[i] = Lexical.addSymbol(symbols, result.codes[i],
+                        lexeme.set(result.start[i], result.length[i]), result.GetIntValue(i), result.values[i]);
+            }
+            while (warning < warningTokens.size()) {
+                System.out.println(chunk.lex.warningLog.get(warning));
+                warning++;
+            }
+        }
+        return result;
+    }
+}
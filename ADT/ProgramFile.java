@@ -0,0 +1,209 @@
+/*
+ * Program File: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Binary form of a compiled program (quad table, symbol table and the opcode map the quads
+ *          were made for), so a program can be compiled once and run many times without the front end.
+ *          Save writes it; Load maps the file (FileChannel.map), checks it, and the interpreter then
+ *          runs the quads straight out of the mapping. Only the symbol table, which the program writes
+ *          to, is copied into memory.
+ *          Layout (big-endian):
+ *              int magic "QUAD", int version, int CRC32 of every byte after the 16-byte header, int 0
+ *              int opcode count,  then per opcode:  int code, str name
+ *              int symbol count,  then per row:     byte kind, byte data_type, byte flags (1 = pooled
+ *                                                   constant), int integer, long float bits, str name, str string
+ *              int quad count,    then per quad:    int opcode, int op1, int op2, int op3
+ *          where a str is an int byte length (-1 for null) and that many bytes of UTF-8.
+ */
+
+package ADT;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/* --------------------------------
+ * ----- PROGRAM FILE CLASS  ------
+ * -------------------------------- */
+public class ProgramFile {
+
+    // constants
+    static final int MAGIC = 0x51554144;    // "QUAD"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int POOLED = 1;            // row flag: constant in the constant pool
+
+    // elements (of a loaded program)
+    MappedByteBuffer mapping;
+    SymbolTable symbols;        // copied out of the file, the program changes its values as it runs
+    IntBuffer quads;            // view of the quad section of the mapping, QuadTable.QUAD_WIDTH ints per quad
+    int quadCount;
+
+    private ProgramFile() {
+    }
+
+    // Writes [quads] and [symbols] (as they are now, so before running them) and the interpreter's
+    // opcode map to [filename]. False if the file could not be written.
+    public static boolean Save(String filename, QuadTable quads, SymbolTable symbols) {
+        try (FileOutputStream file = new FileOutputStream(filename)) {
+            file.write(new byte[HEADER_SIZE]);      // filled in once the checksum is known
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+
+            // opcode map
+            ReserveTable opcodes = Interpreter.OPCODES;
+            out.writeInt(opcodes.elementCount);
+            for (int i = 0; i < opcodes.elementCount; i++) {
+                out.writeInt(opcodes.opArray[i].code);
+                writeString(out, opcodes.opArray[i].name);
+            }
+
+            // symbol table rows
+            out.writeInt(symbols.elementCount);
+            for (int i = 0; i < symbols.elementCount; i++) {
+                out.writeByte(symbols.kinds[i]);
+                out.writeByte(symbols.types[i]);
+                out.writeByte(symbols.constants.Contains(i) ? POOLED : 0);
+                out.writeInt(symbols.integers[i]);
+                out.writeLong(Double.doubleToRawLongBits(symbols.floats[i]));
+                writeString(out, symbols.names[i]);
+                writeString(out, symbols.strings[i]);
+            }
+
+            // quads
+            out.writeInt(quads.elementCount);
+            for (int i = 0; i < quads.elementCount * QuadTable.QUAD_WIDTH; i++) {
+                out.writeInt(quads.quads[i]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt((int) checked.getChecksum().getValue()).putInt(0);
+            header.flip();
+            file.getChannel().write(header, 0);
+            return true;
+
+        // error handling: writing to file error.
+        } catch (IOException e) {
+            System.out.println("An error occurred. Could not write program file: " + filename);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Maps and checks the program in [filename]. Null (after saying why) if it cannot be read, is not a
+    // program file of this version, fails its checksum, or was compiled for a different opcode map.
+    public static ProgramFile Load(String filename) {
+        ProgramFile program = new ProgramFile();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            program.mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            System.out.println("An error occurred. Could not read program file: " + filename);
+            e.printStackTrace();
+            return null;
+        }
+        ByteBuffer in = program.mapping;
+        try {
+            if ((in.limit() < HEADER_SIZE) || (in.getInt(0) != MAGIC)) {
+                System.out.println("An error occurred. Not a program file: " + filename);
+                return null;
+            }
+            if (in.getInt(4) != VERSION) {
+                System.out.println("An error occurred. Program file " + filename + " is version " + in.getInt(4)
+                        + ", expected " + VERSION + "!");
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            ByteBuffer body = in.duplicate();
+            body.position(HEADER_SIZE);
+            crc.update(body);
+            if ((int) crc.getValue() != in.getInt(8)) {
+                System.out.println("An error occurred. Program file " + filename + " is damaged (checksum mismatch)!");
+                return null;
+            }
+            in.position(HEADER_SIZE);
+
+            // the quads only mean something with the opcodes they were made for
+            int opcodeCount = in.getInt();
+            for (int i = 0; i < opcodeCount; i++) {
+                int code = in.getInt();
+                String name = readString(in);
+                if (!Interpreter.OPCODES.LookupCode(code).equalsIgnoreCase(name)) {
+                    System.out.println("An error occurred. Program file " + filename + " uses opcode " + code + " for "
+                            + name + ", which this interpreter does not have!");
+                    return null;
+                }
+            }
+
+            int symbolCount = in.getInt();
+            program.symbols = new SymbolTable(symbolCount);
+            for (int i = 0; i < symbolCount; i++) {
+                char kind = (char) (in.get() & 0xFF);
+                char type = (char) (in.get() & 0xFF);
+                int flags = in.get();
+                int integer = in.getInt();
+                double value = Double.longBitsToDouble(in.getLong());
+                String name = readString(in);
+                String string = readString(in);
+                program.symbols.loadRow(name, kind, type, integer, value, string, (flags & POOLED) != 0);
+            }
+
+            program.quadCount = in.getInt();
+            ByteBuffer quadBytes = in.slice();
+            quadBytes.limit(program.quadCount * QuadTable.QUAD_WIDTH * 4);
+            program.quads = quadBytes.asIntBuffer();
+            return program;
+
+        // a file that passed its checksum but is cut short or inconsistent
+        } catch (RuntimeException e) {
+            System.out.println("An error occurred. Program file " + filename + " is not laid out as expected!");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // the program's symbol table, with the values it was saved with until the program is run
+    public SymbolTable GetSymbolTable() {
+        return symbols;
+    }
+
+    // number of quads
+    public int Count() {
+        return quadCount;
+    }
+
+    // returns int of a row and column of the quads, as QuadTable.GetQuad
+    public int GetQuad(int index, int column) {
+        return quads.get(index * QuadTable.QUAD_WIDTH + column);
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
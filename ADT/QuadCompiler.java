@@ -0,0 +1,505 @@
+/*
+ * Quad Compiler: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Compiles a run of quads to JVM bytecode (Interpreter.Engine.JIT), so the JVM's own
+ *          compilers optimize the program instead of running an interpreter over it. The quads
+ *          become one method of a hidden class (MethodHandles.Lookup.defineHiddenClass) written with
+ *          ClassFileWriter:
+ *              - every symbol row the quads use becomes a JVM local, loaded from the symbols' values
+ *                on entry and, if the quads change it, stored back on exit;
+ *              - JMP, JZ, JP, ... become JVM branches when their target is in the compiled quads;
+ *              - PRINT, READ and STOP call back into the Interpreter, with the row they use synced.
+ *          The method can be entered at any of its quads and returns the quad to run next when
+ *          control leaves them (a jump elsewhere, JINDR, running off the end, or STOP), so any
+ *          range of a program can be compiled, not only the whole of it.
+ *          A range is not compiled (compile returns null, the caller interprets it) if an operand is
+ *          not a symbol row, or the method would be too large for 16-bit branch offsets.
+ */
+
+package ADT;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/* --------------------------------
+ * ----- QUAD COMPILER CLASS  -----
+ * -------------------------------- */
+public class QuadCompiler {
+
+    // constants
+    static final String CLASS_NAME = "ADT/QuadCompiler$Compiled";
+    static final String REGION = "ADT/QuadCompiler$Region";
+    static final String INTERPRETER = "ADT/Interpreter";
+    static final int MAX_CODE = 32767;      // longest method whose branches all fit 16-bit offsets
+    static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    // local slots of the compiled run method: its parameters, the next pc, then one per symbol row
+    static final int PC = 1, VALUES = 2, TYPES = 3, RUNTIME = 4, NEXT = 5, FIRST_ROW = 6;
+    // JVM instructions used
+    static final int ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC = 0x12, LDC_W = 0x13,
+            ILOAD = 0x15, ALOAD = 0x19, IALOAD = 0x2e, ISTORE = 0x36, IASTORE = 0x4f, BASTORE = 0x54,
+            IADD = 0x60, ISUB = 0x64, IMUL = 0x68, IDIV = 0x6c, IFEQ = 0x99, IFNE = 0x9a, IFLT = 0x9b,
+            IFGE = 0x9c, IFGT = 0x9d, IFLE = 0x9e, GOTO = 0xa7, TABLESWITCH = 0xaa, IRETURN = 0xac,
+            RETURN = 0xb1, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, WIDE = 0xc4;
+    static final int EXIT = -1;             // branch target: the exit block
+
+    // A compiled range of quads.
+    public interface Region {
+        // Runs the quads from quad [pc] against the symbols' [values] and [types], calling [runtime]
+        // for PRINT, READ and STOP. Returns the quad to run next, which is outside the range (or
+        // Interpreter.STOP_PC); by then the values the quads changed are back in [values].
+        // A [pc] outside the range is returned as it is.
+        int run(int pc, int[] values, byte[] types, Interpreter runtime);
+    }
+
+    // elements (of one compile)
+    int[] quads;
+    int from;
+    int to;
+    byte[] startTypes;      // symbols' data types when compiled
+    int[] localOf;          // local slot of each symbol row, 0 if the quads do not use it
+    int[] rowOf;            // symbol row of each local slot from FIRST_ROW on
+    boolean[] stored;       // local slots the quads change, written back on exit
+    int locals;             // local slots in use
+    ClassFileWriter classFile;
+    byte[] code = new byte[256];
+    int length;
+    int[] quadStart;        // offset of each quad's code
+    int[] fixAt = new int[64];      // branches to patch once every offset is known: where the offset goes,
+    int[] fixFrom = new int[64];    // the instruction it is relative to,
+    int[] fixTarget = new int[64];  // the quad it goes to (EXIT for the exit block),
+    boolean[] fixWide = new boolean[64];    // and if it is 4 bytes rather than 2
+    int fixCount;
+    int exitStart;
+
+    private QuadCompiler(int[] quads, int from, int to, SymbolTable symbols) {
+        this.quads = quads;
+        this.from = from;
+        this.to = to;
+        startTypes = symbols.types;
+        localOf = new int[symbols.integers.length];
+        rowOf = new int[16];
+        stored = new boolean[16];
+        locals = FIRST_ROW;
+        quadStart = new int[to - from];
+    }
+
+    // Compiles quads [from] up to [to] of [quads] (packed as in QuadTable, op codes already valid)
+    // for a program running against [symbols]. Null if the range cannot be compiled.
+    public static Region compile(int[] quads, int from, int to, SymbolTable symbols) {
+        if (from >= to) {
+            return null;
+        }
+        QuadCompiler compiler = new QuadCompiler(quads, from, to, symbols);
+        if (!compiler.assignLocals()) {
+            return null;
+        }
+        compiler.emitRun();
+        if (compiler.length > MAX_CODE) {
+            return null;
+        }
+        return compiler.define();
+    }
+
+    /* -----------------------------
+     * Operands
+     * -------------------------- */
+    // gives a local to each row the quads read or write as a value; false if one is not a symbol row
+    private boolean assignLocals() {
+        for (int pc = from; pc < to; pc++) {
+            int base = pc * QuadTable.QUAD_WIDTH;
+            int op1 = quads[base + 1];
+            int op2 = quads[base + 2];
+            int op3 = quads[base + 3];
+            boolean ok;
+            switch (quads[base]) {
+                case Interpreter.DIV:
+                case Interpreter.MUL:
+                case Interpreter.SUB:
+                case Interpreter.ADD:
+                    ok = use(op1) && use(op2) && use(op3) && store(op3);
+                    break;
+                case Interpreter.MOV:
+                    ok = use(op1) && use(op3) && store(op3);
+                    break;
+                case Interpreter.PRINT:
+                case Interpreter.READ:
+                    ok = (op3 >= 0) && (op3 < localOf.length);
+                    break;
+                case Interpreter.JZ:
+                case Interpreter.JP:
+                case Interpreter.JN:
+                case Interpreter.JNZ:
+                case Interpreter.JNP:
+                case Interpreter.JNN:
+                    ok = use(op1);
+                    break;
+                case Interpreter.JINDR:
+                    ok = use(op3);
+                    break;
+                default:
+                    ok = true;      // JMP, STOP
+            }
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // gives [row] a local if it has none; false if it is not a symbol row or locals have run out
+    private boolean use(int row) {
+        if ((row < 0) || (row >= localOf.length)) {
+            return false;
+        }
+        if (localOf[row] == 0) {
+            if (locals == 0xFFFF) {
+                return false;
+            }
+            if (locals == rowOf.length) {
+                rowOf = java.util.Arrays.copyOf(rowOf, locals * 2);
+                stored = java.util.Arrays.copyOf(stored, locals * 2);
+            }
+            rowOf[locals] = row;
+            localOf[row] = locals++;
+        }
+        return true;
+    }
+
+    // marks [row]'s local as changed by the quads
+    private boolean store(int row) {
+        stored[localOf[row]] = true;
+        return true;
+    }
+
+    /* -----------------------------
+     * Code
+     * -------------------------- */
+    // run(pc, values, types, runtime): load the locals, jump to quad pc, the quads, the exit block
+    private void emitRun() {
+        classFile = new ClassFileWriter(CLASS_NAME, "java/lang/Object", REGION);
+        for (int slot = FIRST_ROW; slot < locals; slot++) {
+            op(ALOAD);
+            u1(VALUES);
+            pushInt(rowOf[slot]);
+            op(IALOAD);
+            local(ISTORE, slot);
+        }
+
+        // enter at quad pc; a pc outside the range goes straight back (nothing has changed yet)
+        local(ILOAD, PC);
+        int tableAt = length;
+        op(TABLESWITCH);
+        while (length % 4 != 0) {
+            u1(0);
+        }
+        int defaultAt = length;
+        u4(0);
+        u4(from);
+        u4(to - 1);
+        for (int pc = from; pc < to; pc++) {
+            branch(tableAt, pc, true);
+        }
+        patch(defaultAt, tableAt, length, true);
+        local(ILOAD, PC);
+        op(IRETURN);
+
+        for (int pc = from; pc < to; pc++) {
+            quadStart[pc - from] = length;
+            emitQuad(pc);
+        }
+        exitTo(to);     // ran off the end
+
+        // exit block: store what changed, return the next pc
+        exitStart = length;
+        for (int slot = FIRST_ROW; slot < locals; slot++) {
+            if (stored[slot]) {
+                op(ALOAD);
+                u1(VALUES);
+                pushInt(rowOf[slot]);
+                local(ILOAD, slot);
+                op(IASTORE);
+            }
+        }
+        local(ILOAD, NEXT);
+        op(IRETURN);
+
+        for (int i = 0; i < fixCount; i++) {
+            int target = (fixTarget[i] == EXIT) ? exitStart : quadStart[fixTarget[i] - from];
+            patch(fixAt[i], fixFrom[i], target, fixWide[i]);
+        }
+    }
+
+    // the code of quad [pc]
+    private void emitQuad(int pc) {
+        int base = pc * QuadTable.QUAD_WIDTH;
+        int op1 = quads[base + 1];
+        int op2 = quads[base + 2];
+        int op3 = quads[base + 3];
+        switch (quads[base]) {
+
+            // MATH: DIV, MUL, SUB, ADD, and DATA STORAGE: MOVE
+            case Interpreter.DIV:
+                arithmetic(IDIV, op1, op2, op3);
+                break;
+            case Interpreter.MUL:
+                arithmetic(IMUL, op1, op2, op3);
+                break;
+            case Interpreter.SUB:
+                arithmetic(ISUB, op1, op2, op3);
+                break;
+            case Interpreter.ADD:
+                arithmetic(IADD, op1, op2, op3);
+                break;
+            case Interpreter.MOV:
+                local(ILOAD, localOf[op1]);
+                local(ISTORE, localOf[op3]);
+                retype(op3);
+                break;
+
+            // UTILITY: PRINT, READ, through the interpreter with the row in the values array
+            case Interpreter.PRINT:
+                sync(op3);
+                call("print", op3);
+                break;
+            case Interpreter.READ:
+                sync(op3);
+                call("read", op3);
+                if (localOf[op3] != 0) {
+                    op(ALOAD);
+                    u1(VALUES);
+                    pushInt(op3);
+                    op(IALOAD);
+                    local(ISTORE, localOf[op3]);
+                }
+                break;
+
+            // BRANCHES: JMP, JZ, JP, JN, JNZ, JNP, JNN, JINDR
+            case Interpreter.JMP:
+                jumpTo(op3);
+                break;
+            case Interpreter.JZ:
+                branchIf(IFEQ, IFNE, op1, op3);
+                break;
+            case Interpreter.JP:
+                branchIf(IFGT, IFLE, op1, op3);
+                break;
+            case Interpreter.JN:
+                branchIf(IFLT, IFGE, op1, op3);
+                break;
+            case Interpreter.JNZ:
+                branchIf(IFNE, IFEQ, op1, op3);
+                break;
+            case Interpreter.JNP:
+                branchIf(IFLE, IFGT, op1, op3);
+                break;
+            case Interpreter.JNN:
+                branchIf(IFGE, IFLT, op1, op3);
+                break;
+            case Interpreter.JINDR:
+                // target only known at run time: leave, the caller comes back in at it
+                local(ILOAD, localOf[op3]);
+                local(ISTORE, NEXT);
+                goTo(EXIT);
+                break;
+
+            // TERMINATE: STOP
+            default:
+                op(ALOAD);
+                u1(RUNTIME);
+                op(INVOKEVIRTUAL);
+                u2(classFile.methodRef(INTERPRETER, "stop", "()V"));
+                exitTo(Interpreter.STOP_PC);
+        }
+    }
+
+    private void arithmetic(int opcode, int op1, int op2, int op3) {
+        local(ILOAD, localOf[op1]);
+        local(ILOAD, localOf[op2]);
+        op(opcode);
+        local(ISTORE, localOf[op3]);
+        retype(op3);
+    }
+
+    // a row that was not an integer when compiled becomes one when stored to, as in the interpreter
+    private void retype(int row) {
+        if (startTypes[row] != 'I') {
+            op(ALOAD);
+            u1(TYPES);
+            pushInt(row);
+            pushInt('I');
+            op(BASTORE);
+        }
+    }
+
+    // puts [row]'s local (if it has one) in the values array, for the interpreter to see
+    private void sync(int row) {
+        if (localOf[row] != 0) {
+            op(ALOAD);
+            u1(VALUES);
+            pushInt(row);
+            local(ILOAD, localOf[row]);
+            op(IASTORE);
+        }
+    }
+
+    // runtime.[method](row)
+    private void call(String method, int row) {
+        op(ALOAD);
+        u1(RUNTIME);
+        pushInt(row);
+        op(INVOKEVIRTUAL);
+        u2(classFile.methodRef(INTERPRETER, method, "(I)V"));
+    }
+
+    // to quad [target]: a branch if it is compiled here, otherwise out through the exit block
+    private void jumpTo(int target) {
+        if ((target >= from) && (target < to)) {
+            goTo(target);
+        } else {
+            exitTo(target);
+        }
+    }
+
+    // to quad [target] if [row] passes the test [ifOp] ([notOp] is its opposite)
+    private void branchIf(int ifOp, int notOp, int row, int target) {
+        local(ILOAD, localOf[row]);
+        if ((target >= from) && (target < to)) {
+            int at = length;
+            op(ifOp);
+            branch(at, target, false);
+        } else {
+            int at = length;
+            op(notOp);
+            u2(0);
+            exitTo(target);
+            patch(at + 1, at, length, false);
+        }
+    }
+
+    // leave with [target] as the next pc
+    private void exitTo(int target) {
+        pushInt(target);
+        local(ISTORE, NEXT);
+        goTo(EXIT);
+    }
+
+    // goto quad [target], or EXIT
+    private void goTo(int target) {
+        int at = length;
+        op(GOTO);
+        branch(at, target, false);
+    }
+
+    /* -----------------------------
+     * Bytes
+     * -------------------------- */
+    private void op(int opcode) {
+        u1(opcode);
+    }
+
+    private void u1(int value) {
+        if (length == code.length) {
+            code = java.util.Arrays.copyOf(code, length * 2);
+        }
+        code[length++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        u1(value >>> 8);
+        u1(value);
+    }
+
+    private void u4(int value) {
+        u2(value >>> 16);
+        u2(value);
+    }
+
+    // [opcode] (ILOAD or ISTORE) on local [slot], wide if the slot needs 16 bits
+    private void local(int opcode, int slot) {
+        if (slot > 0xFF) {
+            op(WIDE);
+            op(opcode);
+            u2(slot);
+        } else {
+            op(opcode);
+            u1(slot);
+        }
+    }
+
+    // the shortest instruction that pushes [value]
+    private void pushInt(int value) {
+        if ((value >= -1) && (value <= 5)) {
+            op(ICONST_0 + value);
+        } else if ((value >= Byte.MIN_VALUE) && (value <= Byte.MAX_VALUE)) {
+            op(BIPUSH);
+            u1(value);
+        } else if ((value >= Short.MIN_VALUE) && (value <= Short.MAX_VALUE)) {
+            op(SIPUSH);
+            u2(value);
+        } else {
+            int index = classFile.integer(value);
+            if (index <= 0xFF) {
+                op(LDC);
+                u1(index);
+            } else {
+                op(LDC_W);
+                u2(index);
+            }
+        }
+    }
+
+    // room for the offset of a branch at [from] to quad [target] (or EXIT), filled in by emitRun
+    private void branch(int from, int target, boolean wide) {
+        if (fixCount == fixAt.length) {
+            fixAt = java.util.Arrays.copyOf(fixAt, fixCount * 2);
+            fixFrom = java.util.Arrays.copyOf(fixFrom, fixCount * 2);
+            fixTarget = java.util.Arrays.copyOf(fixTarget, fixCount * 2);
+            fixWide = java.util.Arrays.copyOf(fixWide, fixCount * 2);
+        }
+        fixAt[fixCount] = length;
+        fixFrom[fixCount] = from;
+        fixTarget[fixCount] = target;
+        fixWide[fixCount] = wide;
+        fixCount++;
+        if (wide) {
+            u4(0);
+        } else {
+            u2(0);
+        }
+    }
+
+    // writes the offset from the instruction at [from] to [target] at [at]
+    private void patch(int at, int from, int target, boolean wide) {
+        int offset = target - from;
+        if (wide) {
+            code[at++] = (byte) (offset >>> 24);
+            code[at++] = (byte) (offset >>> 16);
+        }
+        code[at++] = (byte) (offset >>> 8);
+        code[at] = (byte) offset;
+    }
+
+    // makes the class and an instance of it
+    private Region define() {
+        int constructorStart = length;
+        op(ALOAD);
+        u1(0);
+        op(INVOKESPECIAL);
+        u2(classFile.methodRef("java/lang/Object", "<init>", "()V"));
+        op(RETURN);
+        byte[] constructor = java.util.Arrays.copyOfRange(code, constructorStart, length);
+        classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", 1, 1, constructor, constructor.length);
+        classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "run", "(I[I[BL" + INTERPRETER + ";)I", 4, locals,
+                code, constructorStart);
+        try {
+            MethodHandles.Lookup compiled = LOOKUP.defineHiddenClass(classFile.toByteArray(), true);
+            return (Region) compiled.findConstructor(compiled.lookupClass(), MethodType.methodType(void.class)).invoke();
+
+        // a class the JVM will not take is a bug here, but the program can still be interpreted
+        } catch (Throwable e) {
+            System.out.println("An error occurred. Compiled quads were rejected: " + e);
+            return null;
+        }
+    }
+}
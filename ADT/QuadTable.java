@@ -1,16 +1,19 @@
 /*
  * Quad Table: Java Class File
  * Created by: Matthew Hileman
- * Last Updated: 3 Feb 2022
+ * Last Updated: 17 October 2026
  * Purpose: The quad table is a list of opcodes and three ops that tell the compiler
  *          different information depending on the op.
- *          Consists of a single array that contains: opcode, op1, op2, op3.
+ *          Consists of a single int array that holds each quad as 4 ints in a row: opcode, op1, op2, op3
+ *          (quad i starts at i * 4), so fetching a quad touches one object and one cache line.
+ *          The table grows as quads are added, up to a ceiling given at construction.
  */
 
 package ADT;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Arrays;
 
 /* --------------------------------
  * ------- QUAD TABLE CLASS  ------
@@ -18,25 +21,60 @@ import java.io.PrintWriter;
  * -------------------------------- */
 public class QuadTable {
 
+    // constants
+    static final int DEFAULT_MAX_ROWS = 1 << 24;   // ceiling when none is given (~16M quads)
+    static final int QUAD_WIDTH = 4;               // ints per quad
+    static final int MAX_PACKED_ROWS = (Integer.MAX_VALUE - 8) / QUAD_WIDTH;     // largest int[] that fits
+
     // elements
     int elementCount;
-    QuadObj[] quadArray;    //declaring array
+    int[] quads;            //packed quads, QUAD_WIDTH ints each
+    int maxRows;            //the table never grows past this many rows
 
-    // Constructor
-    public QuadTable(int maxSize){
+    // Constructor - [sizeHint] rows are made up front, the table grows as needed
+    public QuadTable(int sizeHint){
+        this(sizeHint, DEFAULT_MAX_ROWS);
+    }
 
-        // error handling: make sure the max size is greater than 0 (would create an error when making an array!)
-        try {
-            // initialize reserve table (opArray) with Operation objects as the type.
-            quadArray = new QuadObj[maxSize];
-        } catch (ArrayIndexOutOfBoundsException e){
-            System.out.println("An error occurred. The max-size for the Symbol table cannot be less than 0!");
-            e.printStackTrace();
+    // Constructor - as above, but AddQuad fails once the table would need more than [maxSize] rows
+    public QuadTable(int sizeHint, int maxSize){
+
+        // error handling: make sure the size hint is not negative (would create an error when making an array!)
+        if (sizeHint < 0){
+            System.out.println("An error occurred. The size hint for the Quad table cannot be less than 0!");
+            sizeHint = 0;
         }
-        // initialize how many elements are used in the Symbol Table to 0.
+        maxRows = Math.min(maxSize, MAX_PACKED_ROWS);
+        // initialize quad table (quads) with room for [sizeHint] packed quads.
+        quads = new int[Math.min(sizeHint, maxRows) * QUAD_WIDTH];
+        // initialize how many elements are used in the Quad Table to 0.
         elementCount = 0;
     }
 
+    // Makes room for one more row: the array doubles (rows keep their index, jumps refer to them).
+    // Past the ceiling, or out of memory, this is a compile error the caller cannot carry on from.
+    private void ensureRoom(){
+        int rows = quads.length / QUAD_WIDTH;
+        if (elementCount < rows){
+            return;
+        }
+        if (rows >= maxRows){
+            full("ceiling of " + maxRows + " rows reached");
+        }
+        int size = (int) Math.min(Math.max(rows * 2L, 16), maxRows);
+        try {
+            quads = Arrays.copyOf(quads, size * QUAD_WIDTH);
+        } catch (OutOfMemoryError e){
+            full("out of memory growing to " + size + " rows");
+        }
+    }
+
+    private void full(String reason){
+        String message = "An error occurred. The Quad table is full, " + reason + "!";
+        System.out.println(message);
+        throw new IllegalStateException(message);
+    }
+
     // returns the index of where the next available row is (important for code generation!)
     public int NextQuad(){
         return elementCount;
@@ -45,8 +83,13 @@ public class QuadTable {
     // adds quad to the quad table
     public void AddQuad(int opcode, int op1, int op2, int op3){
 
-        // DON'T NEED ERROR CASE: index should never go out of bounds - if it does, java will throw error automatically.
-        quadArray[elementCount] = new QuadObj(opcode, op1, op2, op3);
+        // grows the table if it is full (or fails with a diagnostic at the ceiling)
+        ensureRoom();
+        int base = elementCount * QUAD_WIDTH;
+        quads[base] = opcode;
+        quads[base + 1] = op1;
+        quads[base + 2] = op2;
+        quads[base + 3] = op3;
         elementCount++;
     }
 
@@ -62,28 +105,39 @@ public class QuadTable {
                                "(there are 4 total quads)!");
             return 0;
         } else {
-            // get the quad array (row)
-            // get the opArray of that quad (column)
-            return quadArray[index].opArray[column];
+            // get the start of the quad (row), then the column within it
+            return quads[index * QUAD_WIDTH + column];
+        }
+    }
+
+    // Bulk version of GetQuad: copies opcode, op1, op2, op3 of quad [index] into [quad] (at least
+    // 4 long) with one bounds check. False, and [quad] untouched, if there is no such quad.
+    public boolean GetQuad(int index, int[] quad){
+        if ((index < 0) || (index >= elementCount)){
+            System.out.println("An error occurred. Given index in GetQuad is outside the quad table!");
+            return false;
         }
+        System.arraycopy(quads, index * QUAD_WIDTH, quad, 0, QUAD_WIDTH);
+        return true;
     }
 
     // changes a quad at a given location (NEEDED AT CODE GENERATION)
     public void UpdateQuad(int index, int opcode, int op1, int op2, int op3){
         if (index <= elementCount) {
-            quadArray[index].opArray[0] = opcode;
-            quadArray[index].opArray[1] = op1;
-            quadArray[index].opArray[2] = op2;
-            quadArray[index].opArray[3] = op3;
+            int base = index * QUAD_WIDTH;
+            quads[base] = opcode;
+            quads[base + 1] = op1;
+            quads[base + 2] = op2;
+            quads[base + 3] = op3;
         } else {
             System.out.println("An error occurred. UpdateQuad attempted on an empty quad row!");
         }
     }
 
-    // similar to UpdateQuad, but only for op3.
+    // similar to UpdateQuad, but only for op3 (backpatching a jump): a single store.
     public void setQuadOp3(int quadIndex, int op3){
         if (quadIndex <= elementCount) {
-            quadArray[quadIndex].opArray[3] = op3;
+            quads[quadIndex * QUAD_WIDTH + 3] = op3;
         } else {
             System.out.println("An error occurred. UpdateQuad attempted on an empty quad row!");
         }
@@ -102,8 +156,9 @@ public class QuadTable {
 
             // write each element in tabular output format
             for (int i = 0; i < elementCount; i++) {
-                writer.printf("%-8s| %-8s| %-8s| %-8s| %s%n", i, quadArray[i].opArray[0], quadArray[i].opArray[1],
-                        quadArray[i].opArray[2], quadArray[i].opArray[3]);
+                int base = i * QUAD_WIDTH;
+                writer.printf("%-8s| %-8s| %-8s| %-8s| %s%n", i, quads[base], quads[base + 1],
+                        quads[base + 2], quads[base + 3]);
             }
 
             // footer
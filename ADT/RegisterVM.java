@@ -0,0 +1,204 @@
+/*
+ * Register VM: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Third way for the Interpreter to run quads (Interpreter.Engine.REGISTER). When the run
+ *          starts, the symbols' integer values and data types are copied into a register file the
+ *          VM owns, and the program runs against that alone; the SymbolTable is not touched again
+ *          until the run ends (STOP, running off the quads, or an error), when the registers are
+ *          written back so ST-after shows them. PRINT and READ, which go through the SymbolTable,
+ *          sync just the one row they use.
+ *          Registers are ints, as the symbol table's integer column is: wider registers would
+ *          change where programs overflow, and no op code works on floats.
+ *          Arithmetic and MOV leave a register's data type as 'I'. A destination whose type is
+ *          already 'I' can never change, so only quads writing a row that starts out another type
+ *          are given the variant of their op code (RETYPE) that also sets the type.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ------ REGISTER VM CLASS  ------
+ * -------------------------------- */
+public class RegisterVM {
+
+    // constants
+    static final int RETYPE = 0x100;    // added to an op code: the quad also sets its destination's type
+
+    // elements
+    Interpreter interp;     // started run whose symbol table, trace file and messages the VM uses
+    SymbolTable symbols;
+    int[] program;          // the quads, packed as in QuadTable, op codes marked with RETYPE where needed
+    int quadCount;
+    int[] registers;        // runtime values, one per symbol row
+    byte[] registerTypes;   // runtime data types, one per symbol row
+
+    // Takes the first [count] quads of [code] (packed as in QuadTable) and the register file from
+    // the symbol table [interp] was started on. Op codes must already be valid.
+    RegisterVM(Interpreter interp, int[] code, int count) {
+        this.interp = interp;
+        symbols = interp.symbols;
+        quadCount = count;
+        program = java.util.Arrays.copyOf(code, count * QuadTable.QUAD_WIDTH);
+        registers = symbols.integers.clone();
+        registerTypes = symbols.types.clone();
+        for (int base = 0; base < program.length; base += QuadTable.QUAD_WIDTH) {
+            int opcode = program[base];
+            int op3 = program[base + 3];
+            boolean stores = (opcode >= Interpreter.DIV) && (opcode <= Interpreter.MOV);
+            if (stores && (op3 >= 0) && (op3 < registerTypes.length) && (registerTypes[op3] != 'I')) {
+                program[base] = opcode | RETYPE;
+            }
+        }
+    }
+
+    // Runs from the first quad until a STOP or a jump out of the quads, then writes the registers
+    // back. False after an error (already reported), when the interpreter's footer should not be written.
+    boolean run() {
+        int[] code = program;
+        int[] values = registers;
+        byte[] types = registerTypes;
+        boolean traceOn = interp.traceOn;
+        int pc = 0;
+        try {
+            while ((pc >= 0) && (pc < quadCount)) {
+                int base = pc * QuadTable.QUAD_WIDTH;
+                int opcode = code[base];
+                int op1 = code[base + 1];
+                int op2 = code[base + 2];
+                int op3 = code[base + 3];
+                if (traceOn) {
+                    interp.trace(pc, opcode & ~RETYPE, op1, op2, op3);
+                }
+                switch (opcode) {
+
+                    // MATH: DIV, MUL, SUB, ADD, and DATA STORAGE: MOVE
+                    case Interpreter.DIV:
+                        values[op3] = values[op1] / values[op2];
+                        pc++;
+                        break;
+                    case Interpreter.MUL:
+                        values[op3] = values[op1] * values[op2];
+                        pc++;
+                        break;
+                    case Interpreter.SUB:
+                        values[op3] = values[op1] - values[op2];
+                        pc++;
+                        break;
+                    case Interpreter.ADD:
+                        values[op3] = values[op1] + values[op2];
+                        pc++;
+                        break;
+                    case Interpreter.MOV:
+                        values[op3] = values[op1];
+                        pc++;
+                        break;
+
+                    // the same, for a destination that is not yet an integer
+                    case Interpreter.DIV | RETYPE:
+                        values[op3] = values[op1] / values[op2];
+                        types[op3] = 'I';
+                        pc++;
+                        break;
+                    case Interpreter.MUL | RETYPE:
+                        values[op3] = values[op1] * values[op2];
+                        types[op3] = 'I';
+                        pc++;
+                        break;
+                    case Interpreter.SUB | RETYPE:
+                        values[op3] = values[op1] - values[op2];
+                        types[op3] = 'I';
+                        pc++;
+                        break;
+                    case Interpreter.ADD | RETYPE:
+                        values[op3] = values[op1] + values[op2];
+                        types[op3] = 'I';
+                        pc++;
+                        break;
+                    case Interpreter.MOV | RETYPE:
+                        values[op3] = values[op1];
+                        types[op3] = 'I';
+                        pc++;
+                        break;
+
+                    // UTILITY: PRINT, READ (through the symbol table, for that one row)
+                    case Interpreter.PRINT:
+                        storeRow(op3);
+                        interp.print(op3);
+                        pc++;
+                        break;
+                    case Interpreter.READ:
+                        storeRow(op3);
+                        interp.read(op3);
+                        loadRow(op3);
+                        pc++;
+                        break;
+
+                    // BRANCHES: JMP, JZ, JP, JN, JNZ, JNP, JNN, JINDR
+                    case Interpreter.JMP:
+                        pc = op3;
+                        break;
+                    case Interpreter.JZ:
+                        pc = (values[op1] == 0) ? op3 : pc + 1;
+                        break;
+                    case Interpreter.JP:
+                        pc = (values[op1] > 0) ? op3 : pc + 1;
+                        break;
+                    case Interpreter.JN:
+                        pc = (values[op1] < 0) ? op3 : pc + 1;
+                        break;
+                    case Interpreter.JNZ:
+                        pc = (values[op1] != 0) ? op3 : pc + 1;
+                        break;
+                    case Interpreter.JNP:
+                        pc = (values[op1] <= 0) ? op3 : pc + 1;
+                        break;
+                    case Interpreter.JNN:
+                        pc = (values[op1] >= 0) ? op3 : pc + 1;
+                        break;
+                    case Interpreter.JINDR:
+                        pc = values[op3];
+                        break;
+
+                    // TERMINATE: STOP
+                    default:
+                        interp.stop();
+                        pc = Interpreter.STOP_PC;
+                        break;
+                }
+            }
+
+        // ERROR CASE: an operand that is not a symbol row
+        } catch (ArrayIndexOutOfBoundsException e) {
+            interp.indexError(pc);
+            return false;
+
+        // however the run ends, even by an exception (division by zero), the values it reached are kept
+        } finally {
+            writeBack();
+        }
+        return true;
+    }
+
+    // copies the registers into the symbol table, as the switch interpreter would have left it
+    void writeBack() {
+        System.arraycopy(registers, 0, symbols.integers, 0, registers.length);
+        System.arraycopy(registerTypes, 0, symbols.types, 0, registerTypes.length);
+    }
+
+    // register [row] into the symbol table (a row that is not a register is left for the caller to report)
+    private void storeRow(int row) {
+        if ((row >= 0) && (row < registers.length)) {
+            symbols.integers[row] = registers[row];
+            symbols.types[row] = registerTypes[row];
+        }
+    }
+
+    // symbol table [row] into its register
+    private void loadRow(int row) {
+        if ((row >= 0) && (row < registers.length)) {
+            registers[row] = symbols.integers[row];
+            registerTypes[row] = symbols.types[row];
+        }
+    }
+}
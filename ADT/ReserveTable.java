@@ -1,15 +1,19 @@
 /*
  * Reserve Table: Java Class File
  * Created by: Matthew Hileman
- * Last Updated: 24 Jan 2022
+ * Last Updated: 17 October 2026
  * Purpose: The reserve table is a list of indexed names and codes that are used throughout the compiler.
  *          The object has the capability to add operators and lookup operator opcodes or names based on each other.
+ *          Names are found through a case-insensitive hash index (NameIndex) and codes through an array
+ *          indexed by code, so both lookups take constant time. A table can be frozen once filled,
+ *          after which it never changes and can be shared by any number of compilers and threads.
 */
 
 // Reserve Table Rows are their own object (called operation, imported from its own file).
 package ADT;
 // needed to write to text file in the print method.
 import java.io.*;
+import java.util.Arrays;
 
 
 /* --------------------------------
@@ -18,10 +22,17 @@ import java.io.*;
  * -------------------------------- */
 public class ReserveTable {
 
+    // constants
+    static final int MAX_DENSE_CODE = 4096;    // codes from 0 up to this are found by array index
+
     // elements
     int elementCount;
     int notFound = -1;
     ReserveObj[] opArray;    //declaring array
+    NameIndex names;         //name -> row, first row wins as in a scan
+    String[] codeNames;      //code -> name of its first row, null if none (codes 0..MAX_DENSE_CODE-1)
+    boolean sparseCodes;     //true if some code is outside that range and needs a scan
+    boolean frozen;          //no more Adds once set
 
     // Constructor - set the max number of rows (stored as an array, opArray).
     public ReserveTable(int maxSize) {
@@ -37,39 +48,73 @@ public class ReserveTable {
 
         // initialize how many elements used of the reserve table to 0.
         elementCount = 0;
+        names = new NameIndex(maxSize);
+        codeNames = new String[0];
     }
 
 
     // adds a name and opcode to reserve table (contained in Operation),
     //   then returns the index of the added operation.
     public int Add(String name, int code){
+
+        // ERROR CASE: a frozen table is shared, it must not change
+        if (frozen){
+            System.out.println("An error occurred. Cannot add " + name + " to a frozen reserve table!");
+            return notFound;
+        }
         opArray[elementCount] = new ReserveObj(name, code);
+        names.Add(name, elementCount);
+        if ((code >= 0) && (code < MAX_DENSE_CODE)){
+            if (code >= codeNames.length){
+                codeNames = Arrays.copyOf(codeNames, Math.max(code + 1, codeNames.length * 2));
+            }
+            if (codeNames[code] == null){
+                codeNames[code] = name;
+            }
+        } else {
+            sparseCodes = true;
+        }
         elementCount ++;
         return elementCount - 1;
     }
 
 
+    // Makes the table read-only and returns it. A frozen table is never written again, so once it
+    // has been safely published (e.g. in a static final field) every thread can look it up.
+    public ReserveTable Freeze(){
+        frozen = true;
+        return this;
+    }
+
+    // true once Freeze has been called
+    public boolean IsFrozen(){
+        return frozen;
+    }
+
+
     // look up the [code] given the [name] (-1 if dne)
     public int LookupName(String name){
 
-        // search each element (n lookup time)
-        for (int i = 0; i < elementCount; i++){
+        // hashed on the case-folded name (constant lookup time)
+        int row = names.Lookup(name);
 
-            // check if string values are equal (ignoring case)
-            if (opArray[i].name.compareToIgnoreCase(name) == 0){
-                return opArray[i].code;
-            }
-        }
-
-        // if entire opArray is searched and string not found, return -1.
-        return -1;
+        // if the name is not in the table, return -1.
+        return (row >= 0) ? opArray[row].code : -1;
     } // LookupName
 
 
     // look up the [name] given the [code] (empty string if dne)
     public String LookupCode(int code){
 
-        // search each element (n lookup time)
+        // codes in the dense range are one array index (constant lookup time)
+        if ((code >= 0) && (code < MAX_DENSE_CODE)){
+            return ((code < codeNames.length) && (codeNames[code] != null)) ? codeNames[code] : "";
+        }
+        if (!sparseCodes){
+            return "";
+        }
+
+        // otherwise search each element (n lookup time)
         for (int i = 0; i < elementCount; i++){
             if (opArray[i].code == code){
                 return opArray[i].name;
@@ -0,0 +1,130 @@
+/*
+ * Shared Interner: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: One copy of each identifier name and string constant for many compilations running at
+ *          once in the same JVM. Symbol tables given the same interner (SymbolTable.SetInterner) make
+ *          their names and string values through it, so a name used by a hundred programs is held
+ *          once. Each table still keeps its own rows and its own name and constant indexes, so
+ *          row numbers stay per program; only the Strings are shared.
+ *          Safe to use from any number of threads: lookups do not lock (ConcurrentHashMap), and a
+ *          text can be looked up as any CharSequence, so a known lexeme does not become a String.
+ */
+
+package ADT;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* --------------------------------
+ * ---- SHARED INTERNER CLASS  ----
+ * -------------------------------- */
+public class SharedInterner {
+
+    // elements
+    ConcurrentHashMap<Key, String> strings = new ConcurrentHashMap<>();
+    ThreadLocal<Probe> probes = ThreadLocal.withInitial(Probe::new);
+    LongAdder added = new LongAdder();      // texts made into a new shared String
+    LongAdder races = new LongAdder();      // ...of which another thread had added first
+
+    // the shared String equal to [text] (case matters), made from [text] if it is the first
+    public String Intern(CharSequence text) {
+        Probe probe = probes.get();
+        probe.set(text);
+        String found = strings.get(probe);
+        probe.set(null);
+        if (found != null) {
+            return found;
+        }
+        String made = text.toString();
+        String raced = strings.putIfAbsent(new Entry(made), made);
+        added.increment();
+        if (raced != null) {
+            races.increment();
+            return raced;
+        }
+        return made;
+    }
+
+    // number of distinct texts held
+    public int Count() {
+        return strings.size();
+    }
+
+    // number of times a thread made a String another thread had just added (a measure of contention)
+    public long GetRaceCount() {
+        return races.sum();
+    }
+
+    // number of Strings made, including those that lost a race
+    public long GetAddCount() {
+        return added.sum();
+    }
+
+    /* ------------------------------------------
+     * Map keys: equal when their text is equal
+     * --------------------------------------- */
+    abstract static class Key {
+        int hash;
+
+        abstract CharSequence text();
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            CharSequence a = text();
+            CharSequence b = ((Key) other).text();
+            if ((hash != ((Key) other).hash) || (a.length() != b.length())) {
+                return false;
+            }
+            for (int i = 0; i < a.length(); i++) {
+                if (a.charAt(i) != b.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // same as String.hashCode, so it can be computed from any CharSequence
+        static int hash(CharSequence text) {
+            int h = 0;
+            for (int i = 0; i < text.length(); i++) {
+                h = 31 * h + text.charAt(i);
+            }
+            return h;
+        }
+    }
+
+    // a key held in the map
+    static final class Entry extends Key {
+        final String text;
+
+        Entry(String text) {
+            this.text = text;
+            hash = text.hashCode();
+        }
+
+        CharSequence text() {
+            return text;
+        }
+    }
+
+    // a reusable key for lookups, one per thread
+    static final class Probe extends Key {
+        CharSequence text;
+
+        void set(CharSequence text) {
+            this.text = text;
+            hash = (text == null) ? 0 : hash(text);
+        }
+
+        CharSequence text() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Source Buffer: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Random access view of a whole source program for the lexical analyzer.
+ *          Positions are absolute (long) character offsets so sources past 2 GB can be scanned.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ----- SOURCE BUFFER CLASS  -----
+ * -------------------------------- */
+public abstract class SourceBuffer {
+
+    // total number of characters in the source
+    public abstract long length();
+
+    // character at an absolute position (0 <= pos < length())
+    public abstract char charAt(long pos);
+
+    // copies the characters in [start, end) into a new String (used for echo and lexemes)
+    public String substring(long start, long end) {
+        StringBuilder result = new StringBuilder((int) (end - start));
+        for (long i = start; i < end; i++) {
+            result.append(charAt(i));
+        }
+        return result.toString();
+    }
+
+    // Bulk scans for the lexer, so runs of chars that never become tokens are passed in one call
+    // instead of one GetNextChar each. Subclasses that can look at several chars at a time override
+    // these; the defaults are the plain loops.
+
+    // first position >= [from] holding [target], \n or \r (length() if none)
+    public long indexOfLineEndOr(long from, char target) {
+        long end = length();
+        for (long i = from; i < end; i++) {
+            char ch = charAt(i);
+            if ((ch == target) || (ch == '\n') || (ch == '\r')) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // first position >= [from] that is not a blank or tab (length() if none)
+    public long indexOfNonBlank(long from) {
+        long end = length();
+        for (long i = from; i < end; i++) {
+            char ch = charAt(i);
+            if ((ch != ' ') && (ch != '\t')) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // releases anything held open by the buffer, default is nothing to release
+    public void close() {
+    }
+
+    // A range of another buffer seen as a whole source of its own (positions start at 0),
+    // used to lex one chunk of a large file.
+    public static class Slice extends SourceBuffer {
+
+        // elements
+        SourceBuffer buffer;
+        long offset;
+        long size;
+
+        public Slice(SourceBuffer inputBuffer, long start, long end) {
+            buffer = inputBuffer;
+            offset = start;
+            size = end - start;
+        }
+
+        public long length() {
+            return size;
+        }
+
+        public char charAt(long pos) {
+            return buffer.charAt(offset + pos);
+        }
+
+        public String substring(long start, long end) {
+            return buffer.substring(offset + start, offset + end);
+        }
+
+        public long indexOfLineEndOr(long from, char target) {
+            return Math.min(buffer.indexOfLineEndOr(offset + from, target), offset + size) - offset;
+        }
+
+        public long indexOfNonBlank(long from) {
+            return Math.min(buffer.indexOfNonBlank(offset + from), offset + size) - offset;
+        }
+    }
+
+    // Reusable CharSequence window onto a buffer, so a lexeme can be looked up or compared
+    // without copying it out. set() moves the window; toString() makes the copy when one is needed.
+    public static class View implements CharSequence {
+
+        // elements
+        SourceBuffer buffer;
+        long start;
+        int length;
+
+        public View(SourceBuffer inputBuffer) {
+            buffer = inputBuffer;
+        }
+
+        // moves the window to [inputStart, inputStart + inputLength)
+        public View set(long inputStart, int inputLength) {
+            start = inputStart;
+            length = inputLength;
+            return this;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            return buffer.charAt(start + index);
+        }
+
+        public CharSequence subSequence(int from, int to) {
+            return new View(buffer).set(start + from, to - from);
+        }
+
+        public String toString() {
+            return buffer.substring(start, start + length);
+        }
+    }
+}
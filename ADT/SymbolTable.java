@@ -1,17 +1,29 @@
 /*
  * Symbol Table: Java Class File
  * Created by: Matthew Hileman
- * Last Updated: 3 Feb 2022
+ * Last Updated: 17 October 2026
  * Purpose: The symbol table is a large indexed list, similar to the other table classes.
  *          It contains: name, kind, data_type,
  *                       and value (stored in 3 variables that are int/double/string depending on value type).
+ *          Rows are stored column by column (one array per field) rather than as one object per row,
+ *          so a row costs a few array slots and the interpreter can read and write values directly.
  *          Symbol table is used as a "variable" list guide.
+ *          Names are found through a case-insensitive hash index (NameIndex) kept alongside the rows.
+ *          Names live in nested scopes (PushScope / PopScope). The name index always holds the
+ *          binding visible from the innermost scope, so a lookup costs the same at any depth; a
+ *          scope records what its names shadowed and puts it back when it is popped.
+ *          Constants added with AddConstant are kept once per (data_type, value) in a ConstantPool,
+ *          not by name, and are printed in a section of their own.
+ *          Tables of programs compiled side by side can share one copy of their names and string
+ *          values through a SharedInterner (SetInterner); rows and indexes stay per table.
+ *          The table grows as symbols are added, up to a ceiling given at construction.
  */
 
 package ADT;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Arrays;
 
 /* --------------------------------
  * ------ SYMBOL TABLE CLASS  -----
@@ -19,24 +31,127 @@ import java.io.PrintWriter;
  * -------------------------------- */
 public class SymbolTable {
 
+    // constants
+    static final int DEFAULT_MAX_ROWS = 1 << 24;   // ceiling when none is given (~16M symbols)
+
     // elements
     int elementCount;
-    SymbolObj[] symbolArray;    //declaring array
+    String[] names;             //columns, one slot per row
+    byte[] kinds;               //Label, Variable, Constant (L, V, C), as chars narrowed to a byte
+    byte[] types;               //Integer, Float, String (I, F, S), as chars narrowed to a byte
+    int[] integers;
+    double[] floats;
+    String[] strings;
+    NameIndex nameIndex;        //name -> row, updated by every AddSymbol
+    ConstantPool constants;     //(data_type, value) -> row, updated by every AddConstant
+    SharedInterner interner;    //makes the Strings for names and string values when set, may be null
+    int maxRows;                //the table never grows past this many rows
     char constantkind = 'C';
 
-    // Constructor
-    public SymbolTable(int maxSize){
+    // scopes (the global scope is depth 0 and is never popped)
+    int depth;
+    int[] scopeFirstRow = new int[8];   //rows from here on were made while the scope was innermost
+    int[] scopeFirstDecl = new int[8];  //its names start here in the declaration stack
+    String[] declNames = new String[16];    //declaration stack: names bound in scopes above global,
+    int[] declShadowed = new int[16];       //and the row each one hid (-1 if none)
+    int declCount;
+
+    // Constructor - [sizeHint] rows are made up front, the table grows as needed
+    public SymbolTable(int sizeHint){
+        this(sizeHint, DEFAULT_MAX_ROWS);
+    }
 
-        // error handling: make sure the max size is greater than 0 (would create an error when making an array!)
-        try {
-            // initialize reserve table (opArray) with Operation objects as the type.
-            symbolArray = new SymbolObj[maxSize];
-        } catch (ArrayIndexOutOfBoundsException e){
-            System.out.println("An error occurred. The max-size for the Symbol table cannot be less than 0!");
-            e.printStackTrace();
+    // Constructor - as above, but AddSymbol fails once the table would need more than [maxSize] rows
+    public SymbolTable(int sizeHint, int maxSize){
+
+        // error handling: make sure the size hint is not negative (would create an error when making an array!)
+        if (sizeHint < 0){
+            System.out.println("An error occurred. The size hint for the Symbol table cannot be less than 0!");
+            sizeHint = 0;
         }
+        maxRows = maxSize;
+        // initialize symbol table columns
+        int size = Math.min(sizeHint, maxRows);
+        names = new String[size];
+        kinds = new byte[size];
+        types = new byte[size];
+        integers = new int[size];
+        floats = new double[size];
+        strings = new String[size];
         // initialize how many elements are used in the Symbol Table to 0.
         elementCount = 0;
+        nameIndex = new NameIndex(sizeHint);
+        constants = new ConstantPool(this, sizeHint / 4);
+    }
+
+    // Makes room for one more row: the columns double (rows keep their index, quads refer to them).
+    // Past the ceiling, or out of memory, this is a compile error the caller cannot carry on from.
+    private void ensureRoom(){
+        if (elementCount < names.length){
+            return;
+        }
+        if (names.length >= maxRows){
+            full("ceiling of " + maxRows + " rows reached");
+        }
+        int size = (int) Math.min(Math.max(names.length * 2L, 16), maxRows);
+        try {
+            names = Arrays.copyOf(names, size);
+            kinds = Arrays.copyOf(kinds, size);
+            types = Arrays.copyOf(types, size);
+            integers = Arrays.copyOf(integers, size);
+            floats = Arrays.copyOf(floats, size);
+            strings = Arrays.copyOf(strings, size);
+        } catch (OutOfMemoryError e){
+            full("out of memory growing to " + size + " rows");
+        }
+    }
+
+    // From now on names and string values that are new to this table are taken from [shared],
+    // which other tables (on other threads) may be using too. Null goes back to private Strings.
+    public void SetInterner(SharedInterner shared){
+        interner = shared;
+    }
+
+    // the String to keep for [text]: the shared copy if there is an interner
+    String intern(CharSequence text){
+        return (interner != null) ? interner.Intern(text) : text.toString();
+    }
+
+    // fills in the name, kind and type of the next row (the caller sets its value)
+    private int addRow(String symbol, char kind, char data_type){
+        int index = newRow(symbol, kind, data_type);
+        bind(symbol, index);
+        return index;
+    }
+
+    // makes [symbol] name row [index] in the innermost scope, remembering what it hid
+    private void bind(String symbol, int index){
+        int shadowed = nameIndex.Put(symbol, index);
+        if (depth > 0){
+            if (declCount == declNames.length){
+                declNames = Arrays.copyOf(declNames, declCount * 2);
+                declShadowed = Arrays.copyOf(declShadowed, declCount * 2);
+            }
+            declNames[declCount] = symbol;
+            declShadowed[declCount] = shadowed;
+            declCount ++;
+        }
+    }
+
+    // as addRow, for a row that is not found by name
+    private int newRow(String symbol, char kind, char data_type){
+        ensureRoom();
+        names[elementCount] = symbol;
+        kinds[elementCount] = (byte) kind;
+        types[elementCount] = (byte) data_type;
+        elementCount ++;
+        return elementCount - 1;
+    }
+
+    private void full(String reason){
+        String message = "An error occurred. The Symbol table is full, " + reason + "!";
+        System.out.println(message);
+        throw new IllegalStateException(message);
     }
 
 
@@ -50,18 +165,14 @@ public class SymbolTable {
         char data_type = 'I';
 
         // return index if already exists
-        if (existingIndex > 0){
+        if (existingIndex >= 0){
             return existingIndex;
 
-        // ERROR CASE: return -1 if array full
-        } else if (elementCount == symbolArray.length) {
-            return -1;
-
-        // add symbol and return index
+        // add symbol and return index, growing the table if it is full
         } else {
-            symbolArray[elementCount] = new SymbolObj(symbol, kind, value, data_type);
-            elementCount ++;
-            return elementCount - 1;
+            int index = addRow(symbol, kind, data_type);
+            integers[index] = value;
+            return index;
         }
     } //AddSymbol1
 
@@ -73,18 +184,14 @@ public class SymbolTable {
         char data_type = 'F';
 
         // return index if already exists
-        if (existingIndex > 0){
+        if (existingIndex >= 0){
             return existingIndex;
 
-        // ERROR CASE: return -1 if array full
-        } else if (elementCount == symbolArray.length) {
-            return -1;
-
-        // add symbol and return index
+        // add symbol and return index, growing the table if it is full
         } else {
-            symbolArray[elementCount] = new SymbolObj(symbol, kind, value, data_type);
-            elementCount ++;
-            return elementCount - 1;
+            int index = addRow(symbol, kind, data_type);
+            floats[index] = value;
+            return index;
         }
     }
 
@@ -95,37 +202,202 @@ public class SymbolTable {
         char data_type = 'S';
 
         // return index if already exists
-        if (existingIndex > 0){
+        if (existingIndex >= 0){
             return existingIndex;
 
-        // ERROR CASE: return -1 if array full
-        } else if (elementCount == symbolArray.length) {
-            return -1;
-
-        // add symbol and return index
+        // add symbol and return index, growing the table if it is full
         } else {
-            symbolArray[elementCount] = new SymbolObj(symbol, kind, value, data_type);
-            elementCount ++;
-            return elementCount - 1;
+            int index = addRow(symbol, kind, data_type);
+            strings[index] = value;
+            return index;
         }
     }
 
 
-    // LOOKUP METHOD - returns -1 if not found
-    public int LookupSymbol(String symbol){
-    // look up the [index] of the given the [symbol] (-1 if dne)
+    /* ---------------------------------
+     * Declare Symbol Overloaded Methods
+     * ------------------------------ */
+    // Like AddSymbol, but only a symbol of the innermost scope counts as existing: a name visible
+    // from an outer scope gets a new row here that hides it until the scope is popped.
+    public int DeclareSymbol(String symbol, char kind, int value){
+        int existingIndex = LookupInScope(symbol);
+        if (existingIndex >= 0){
+            return existingIndex;
+        }
+        int index = addRow(symbol, kind, 'I');
+        integers[index] = value;
+        return index;
+    }
+
+    public int DeclareSymbol(String symbol, char kind, double value){
+        int existingIndex = LookupInScope(symbol);
+        if (existingIndex >= 0){
+            return existingIndex;
+        }
+        int index = addRow(symbol, kind, 'F');
+        floats[index] = value;
+        return index;
+    }
 
-        // search each element (n lookup time)
-        for (int i = 0; i < elementCount; i++){
+    public int DeclareSymbol(String symbol, char kind, String value){
+        int existingIndex = LookupInScope(symbol);
+        if (existingIndex >= 0){
+            return existingIndex;
+        }
+        int index = addRow(symbol, kind, 'S');
+        strings[index] = value;
+        return index;
+    }
+
+
+    /* -----------------------------
+     * Scope Methods
+     * -------------------------- */
+    // opens a scope inside the current one
+    public void PushScope(){
+        depth ++;
+        if (depth == scopeFirstRow.length){
+            scopeFirstRow = Arrays.copyOf(scopeFirstRow, depth * 2);
+            scopeFirstDecl = Arrays.copyOf(scopeFirstDecl, depth * 2);
+        }
+        scopeFirstRow[depth] = elementCount;
+        scopeFirstDecl[depth] = declCount;
+    }
 
-            // check if string values are equal (ignoring case)
-            if (symbolArray[i].name.compareToIgnoreCase(symbol) == 0){
-                return i;   // return index
+    // Closes the innermost scope: its names stop being visible and the names they hid come back,
+    // in time proportional to the names it declared. Its rows stay (quads may refer to them).
+    // False if there is no scope to close.
+    public boolean PopScope(){
+        if (depth == 0){
+            System.out.println("An error occurred. PopScope attempted on the global scope!");
+            return false;
+        }
+        for (int i = declCount - 1; i >= scopeFirstDecl[depth]; i--){
+            if (declShadowed[i] >= 0){
+                nameIndex.Put(declNames[i], declShadowed[i]);
+            } else {
+                nameIndex.Remove(declNames[i]);
             }
+            declNames[i] = null;
         }
+        declCount = scopeFirstDecl[depth];
+        depth --;
+        return true;
+    }
+
+    // number of scopes open inside the global scope
+    public int ScopeDepth(){
+        return depth;
+    }
+
+    // look up the [index] of [symbol] in the innermost scope only (-1 if dne there)
+    public int LookupInScope(String symbol){
+        int index = nameIndex.Lookup(symbol);
+        // rows made since the scope opened and still visible can only have been bound in it
+        return (index >= scopeFirstRow[depth]) ? index : -1;
+    }
+
+
+    /* -------------------------------
+     * Add Constant Overloaded Methods
+     * ---------------------------- */
+    // Returns the row of the constant [value], adding it if this is the first time the value is seen.
+    // Constants are not found by name: the row keeps the text it was first written as ([lexeme], or
+    // the value itself) for printing only.
+    public int AddConstant(int value){
+        return AddConstant(value, null);
+    }
 
-        // if entire symbol table is searched and symbol not found, return -1.
-        return -1;
+    public int AddConstant(int value, CharSequence lexeme){
+        int existingIndex = constants.FindInteger(value);
+        if (existingIndex >= 0){
+            return existingIndex;
+        }
+        int index = newRow((lexeme == null) ? String.valueOf(value) : intern(lexeme), constantkind, 'I');
+        integers[index] = value;
+        constants.Add(index);
+        return index;
+    }
+
+    public int AddConstant(double value){
+        return AddConstant(value, null);
+    }
+
+    public int AddConstant(double value, CharSequence lexeme){
+        int existingIndex = constants.FindFloat(value);
+        if (existingIndex >= 0){
+            return existingIndex;
+        }
+        int index = newRow((lexeme == null) ? String.valueOf(value) : intern(lexeme), constantkind, 'F');
+        floats[index] = value;
+        constants.Add(index);
+        return index;
+    }
+
+    // a string constant is its own name (one String for both)
+    public int AddConstant(CharSequence value){
+        int existingIndex = constants.FindString(value);
+        if (existingIndex >= 0){
+            return existingIndex;
+        }
+        String text = intern(value);
+        int index = newRow(text, constantkind, 'S');
+        strings[index] = text;
+        constants.Add(index);
+        return index;
+    }
+
+    // number of distinct constants added with AddConstant
+    public int ConstantCount(){
+        return constants.Count();
+    }
+
+    // Appends a row read back from a saved program (ProgramFile.Load) so it keeps its index: pooled
+    // rows go back in the constant pool, the others are bound by name (the first row of a name wins).
+    void loadRow(String symbol, char kind, char data_type, int integer, double value, String string, boolean pooled){
+        if ((string != null) && string.equals(symbol)){
+            string = symbol;
+        }
+        int index = newRow(symbol, kind, data_type);
+        integers[index] = integer;
+        floats[index] = value;
+        strings[index] = string;
+        if (pooled){
+            constants.Add(index);
+        } else if (symbol != null){
+            nameIndex.Add(symbol, index);
+        }
+    }
+
+
+    // look up the [index] of the given the [symbol] as seen from the innermost scope (-1 if dne)
+    public int LookupSymbol(String symbol){
+
+        // hashed on the case-folded name (constant lookup time)
+        return nameIndex.Lookup(symbol);
+    }
+
+
+    // LOOKUP METHOD for a lexeme that is not a String (e.g. a view of the source), same
+    // case-insensitive match as LookupSymbol(String) but without making a String to compare
+    public int LookupSymbol(CharSequence symbol){
+        return nameIndex.Lookup(symbol);
+    }
+
+    // char by char version of compareToIgnoreCase(...) == 0
+    static boolean equalsIgnoreCase(String name, CharSequence symbol){
+        if (name.length() != symbol.length()){
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++){
+            char a = name.charAt(i);
+            char b = symbol.charAt(i);
+            if ((a != b) && (Character.toLowerCase(Character.toUpperCase(a))
+                    != Character.toLowerCase(Character.toUpperCase(b)))){
+                return false;
+            }
+        }
+        return true;
     }
 
 
@@ -138,7 +410,7 @@ public class SymbolTable {
 
         // return symbol
         } else {
-            return symbolArray[index].name;
+            return names[index];
         }
     }
 
@@ -152,7 +424,7 @@ public class SymbolTable {
 
             // return symbol
         } else {
-            return symbolArray[index].kind;
+            return (char) (kinds[index] & 0xFF);
         }
     }
 
@@ -166,7 +438,7 @@ public class SymbolTable {
 
             // return symbol
         } else {
-            return symbolArray[index].data_type;
+            return (char) (types[index] & 0xFF);
         }
     }
 
@@ -179,7 +451,7 @@ public class SymbolTable {
 
             // return symbol
         } else {
-            return symbolArray[index].stringValue;
+            return strings[index];
         }
     }
 
@@ -189,7 +461,7 @@ public class SymbolTable {
         int temp_value = 0;
         // Need a try because there is no empty integer.
         try {
-            temp_value = symbolArray[index].integerValue;
+            temp_value = integers[index];
         } catch (ArrayIndexOutOfBoundsException e){
             System.out.println("An error occurred. The index is out of bounds for GetInteger lookup!");
             e.printStackTrace();
@@ -203,7 +475,7 @@ public class SymbolTable {
         double temp_value = 0;
         // Need a try because there is no empty integer.
         try {
-            temp_value = symbolArray[index].floatValue;
+            temp_value = floats[index];
         } catch (ArrayIndexOutOfBoundsException e){
             System.out.println("An error occurred. The index is out of bounds for GetFloat lookup!");
             e.printStackTrace();
@@ -218,9 +490,9 @@ public class SymbolTable {
     public void UpdateSymbol(int index, char kind, int value){
         char data_type = 'I';
         if (index <= elementCount) {
-            symbolArray[index].kind = kind;
-            symbolArray[index].integerValue = value;
-            symbolArray[index].data_type = data_type;
+            kinds[index] = (byte) kind;
+            integers[index] = value;
+            types[index] = (byte) data_type;
         } else {
             System.out.println("An error occurred. UpdateSymbol attempted on an empty symbol row!");
         }
@@ -228,9 +500,9 @@ public class SymbolTable {
     public void UpdateSymbol(int index, char kind, double value){
         char data_type = 'F';
         if (index <= elementCount) {
-            symbolArray[index].kind = kind;
-            symbolArray[index].floatValue = value;
-            symbolArray[index].data_type = data_type;
+            kinds[index] = (byte) kind;
+            floats[index] = value;
+            types[index] = (byte) data_type;
         } else {
             System.out.println("An error occurred. UpdateSymbol attempted on an empty symbol row!");
         }
@@ -238,9 +510,9 @@ public class SymbolTable {
     public void UpdateSymbol(int index, char kind, String value){
         char data_type = 'S';
         if (index <= elementCount) {
-            symbolArray[index].kind = kind;
-            symbolArray[index].stringValue = value;
-            symbolArray[index].data_type = data_type;
+            kinds[index] = (byte) kind;
+            strings[index] = value;
+            types[index] = (byte) data_type;
         } else {
             System.out.println("An error occurred. UpdateSymbol attempted on an empty symbol row!");
         }
@@ -257,21 +529,23 @@ public class SymbolTable {
             writer.printf("%-3s| %-30s| %-3s| %-3s| %s%n", "I", "Symbol", "K", "DT", "Val");
             writer.println("----------------------------------------------------------------");
 
-            // write each element in tabular output format
+            // write each element in tabular output format (pooled constants are listed below)
             for (int i = 0; i < elementCount; i++) {
-                writer.printf("%-3s| %-30s| %-3s| %-3s| ", i, symbolArray[i].name, symbolArray[i].kind,
-                        symbolArray[i].data_type);
+                if (constants.Contains(i)) {
+                    continue;
+                }
+                writer.printf("%-3s| %-30s| %-3s| %-3s| ", i, names[i], GetKind(i), GetDataType(i));
 
                 // switch to handle value type used.
-                switch (symbolArray[i].data_type) {
+                switch (GetDataType(i)) {
                     case 'I':
-                        writer.printf("%s%n", symbolArray[i].integerValue);
+                        writer.printf("%s%n", integers[i]);
                         break;
                     case 'F':
-                        writer.printf("%s%n", symbolArray[i].floatValue);
+                        writer.printf("%s%n", floats[i]);
                         break;
                     case 'S':
-                        writer.printf("%s%n", symbolArray[i].stringValue);
+                        writer.printf("%s%n", strings[i]);
                         break;
                 }
             } // for
@@ -279,6 +553,32 @@ public class SymbolTable {
             // footer
             writer.println("----------------------------------------------------------------");
 
+            // constant pool, one row per distinct value
+            if (constants.Count() > 0) {
+                writer.printf("%s%n", "Constant Pool");
+                writer.println("----------------------------------------------------------------");
+                writer.printf("%-3s| %-3s| %s%n", "I", "DT", "Val");
+                writer.println("----------------------------------------------------------------");
+                for (int i = 0; i < elementCount; i++) {
+                    if (!constants.Contains(i)) {
+                        continue;
+                    }
+                    writer.printf("%-3s| %-3s| ", i, GetDataType(i));
+                    switch (GetDataType(i)) {
+                        case 'I':
+                            writer.printf("%s%n", integers[i]);
+                            break;
+                        case 'F':
+                            writer.printf("%s%n", floats[i]);
+                            break;
+                        case 'S':
+                            writer.printf("%s%n", strings[i]);
+                            break;
+                    }
+                }
+                writer.println("----------------------------------------------------------------");
+            }
+
             // be sure to close the file's I/O!
             writer.close();
 
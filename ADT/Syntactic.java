@@ -1,7 +1,7 @@
 /*
  * Lexical Analyzer: Syntactic Class File
  * Created by: Matthew Hileman
- * Last Updated: 29 April 2022
+ * Last Updated: 17 October 2026
  * Purpose: To correctly parse the token order from lexical using the given language below.
  */
 
@@ -58,14 +58,19 @@
 
 package ADT;
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+
 /* --------------------------------
  * ------- SYNTACTIC CLASS  -------
  * ----- PART 3, ASSIGNMENT A -----
  * ------------ PART 4 ------------
  * -------------------------------- */
-public class Syntactic {
+public class Syntactic implements AutoCloseable {
 
-    private String filein;              //The full file path to input file
+    private String filein;              //The full file path to input file, null if not from a file
+    private String outputBase;          //Path prefix for the table / trace output files
     private SymbolTable symbolList;     //Symbol table storing ident/const
     private QuadTable quads;            //Quads Table for final output
     private Interpreter interp;         //Interpreter
@@ -75,34 +80,69 @@ public class Syntactic {
     private int level = 0;              //Controls indent for trace mode
     private int temp_count;         //Controls temp naming
     private boolean anyErrors;          //Set TRUE if an error happens
+    private String programFile;         //Where parse saves the compiled program, null to not save it
 
-    private final int symbolSize = 250;
+    private final int symbolSize = 250;     //initial sizes, the tables grow as needed
     private final int quadSize = 1500;
 
     private int Minus1Index;
     private int Plus1Index;
 
-    // constructor
+    // constructor - output files are named after the input file, minus its extension
     public Syntactic(String filename, boolean traceOn) {
-
         filein = filename;
+        outputBase = filein.substring(0, filein.length() - 4);
+        init(traceOn);
+        lex = new Lexical(filein, symbolList, true);
+        lex.setPrintToken(traceOn);
+    }
+
+    // Constructors for sources that are not files (in memory, pipes, channels); output files
+    // are named [outputBase]ST-before.txt etc. A CharSequence goes in as new CharSequenceSource(text).
+    public Syntactic(SourceBuffer input, String outputBase, boolean traceOn) {
+        this.outputBase = outputBase;
+        init(traceOn);
+        lex = new Lexical(input, symbolList, true);
+        lex.setPrintToken(traceOn);
+    }
+
+    public Syntactic(Reader input, String outputBase, boolean traceOn) {
+        this.outputBase = outputBase;
+        init(traceOn);
+        lex = new Lexical(input, symbolList, true);
+        lex.setPrintToken(traceOn);
+    }
+
+    public Syntactic(InputStream input, String outputBase, boolean traceOn) {
+        this.outputBase = outputBase;
+        init(traceOn);
+        lex = new Lexical(input, symbolList, true);
+        lex.setPrintToken(traceOn);
+    }
+
+    public Syntactic(ReadableByteChannel input, String outputBase, boolean traceOn) {
+        this.outputBase = outputBase;
+        init(traceOn);
+        lex = new Lexical(input, symbolList, true);
+        lex.setPrintToken(traceOn);
+    }
+
+    // tables and state shared by every constructor, set up before the lexer adds symbols
+    private void init(boolean traceOn) {
         traceon = traceOn;
 
         // for storing newly created program symbols
         symbolList = new SymbolTable(symbolSize);
 
         // Minus1Index and Plus1Index are preloaded for the locations of symbols -1 and 1 in S.T.
-        Minus1Index = symbolList.AddSymbol("-1", symbolList.constantkind, -1);
-        Plus1Index = symbolList.AddSymbol("1", symbolList.constantkind, 1);
+        Minus1Index = symbolList.AddConstant(-1);
+        Plus1Index = symbolList.AddConstant(1);
 
 
         // initialize quads
         quads = new QuadTable(quadSize);
         // initialize interpreter
         interp = new Interpreter();
-        // initialize lexical
-        lex = new Lexical(filein, symbolList, true);
-        lex.setPrintToken(traceOn);
 
         // initialize error flag
         anyErrors = false;
@@ -111,12 +151,34 @@ public class Syntactic {
         temp_count = 0;
     }
 
+    // Shares names and string constants with other compilers given the same [interner] (see
+    // SharedInterner); call before parse. The symbol table and its row numbers stay this compiler's own.
+    public void setInterner(SharedInterner interner) {
+        symbolList.SetInterner(interner);
+    }
+
+    // Runs the compiled program on [engine] (see Interpreter.Engine); call before parse.
+    public void setEngine(Interpreter.Engine engine) {
+        interp.setEngine(engine);
+    }
+
+    // Has parse save the compiled program to [filename] (see ProgramFile) before running it, so it
+    // can be loaded and run again later without compiling. Nothing is saved if there were errors.
+    public void setProgramFile(String filename) {
+        programFile = filename;
+    }
+
+    // releases the input, if parse has not already done so
+    public void close() {
+        lex.close();
+    }
+
     // The interface to the syntax analyzer, initiates parsing
     // Uses variable RECUR to get return values throughout the non-terminal methods
     public void parse() {
 
-        // make filename pattern for symbol table and quad table output later
-        String filenameBase = filein.substring(0, filein.length() - 4);
+        // filename pattern for symbol table and quad table output later
+        String filenameBase = outputBase;
         System.out.println(filenameBase);
         int recur = 0;
 
@@ -126,6 +188,9 @@ public class Syntactic {
         // call PROGRAM
         recur = Program();
 
+        // all tokens read, the input can go
+        lex.close();
+
         // done, add a final STOP quad
         quads.AddQuad(interp.optable.LookupName("STOP"), 0, 0, 0);
 
@@ -133,6 +198,11 @@ public class Syntactic {
         symbolList.PrintSymbolTable(filenameBase + "ST-before.txt");
         quads.PrintQuadTable(filenameBase + "QUADS.txt");
 
+        // save the program as compiled, before running it changes the symbol values
+        if (!anyErrors && (programFile != null)) {
+            ProgramFile.Save(programFile, quads, symbolList);
+        }
+
         //interpret
         if (!anyErrors) {
             // set TraceOn here to true to print interpreter to file.
@@ -242,7 +312,7 @@ public class Syntactic {
         if (token.code == lex.codeFor("_IDNT")) {
             // Because this is the progIdentifier, it will get a 'p' type to
             // prevent re-use as a var
-            symbolList.UpdateSymbol(symbolList.LookupSymbol(token.lexeme), 'P', 0);
+            symbolList.UpdateSymbol(token.symbolIndex, 'P', 0);
 
             // move on
             token = lex.GetNextToken();
@@ -450,7 +520,7 @@ public class Syntactic {
 
             // identifier
             } else if (token.code == lex.codeFor("_IDNT")){
-                toprint = symbolList.LookupSymbol(token.lexeme);
+                toprint = token.symbolIndex;
                 token = lex.GetNextToken();
 
             } else {
@@ -528,8 +598,8 @@ public class Syntactic {
         // result = identifier
         if (token.code == lex.codeFor("_IDNT")) {
 
-            // index of var from last getNext Call.
-            recur = symbolList.LookupSymbol(token.lexeme);
+            // index of var, resolved by the lexer in the last getNext Call.
+            recur = token.symbolIndex;
             token = lex.GetNextToken();
         } else {
             error("<VARIABLE>", token.lexeme);
@@ -562,9 +632,12 @@ public class Syntactic {
         // <term>
         left = Term();
 
-        // add negation quad (if negative)
+        // add negation quad (if negative), into a new temp: left may be a variable or a pooled
+        // constant shared by every use of that value, so its own row must not change
         if (signval == -1){
-            quads.AddQuad(interp.optable.LookupName("MUL"), left, symbolList.LookupSymbol("Minus1Index"), left);
+            temp = GenSymbol();
+            quads.AddQuad(interp.optable.LookupName("MUL"), left, Minus1Index, temp);
+            left = temp;
         }
 
         // {<addop>  <term>}*
@@ -831,7 +904,7 @@ public class Syntactic {
 
         trace("StringConst", true);
         if (token.code == lex.codeFor("_STRN")) {
-            recur = symbolList.LookupSymbol(token.lexeme);
+            recur = token.symbolIndex;
             token = lex.GetNextToken();
         } else {
             error("<StringConst>", token.lexeme);
@@ -867,7 +940,7 @@ public class Syntactic {
         trace("UnsignedNumber", true);
 
         if ((token.code == lex.codeFor("_FLOA")) || (token.code == lex.codeFor("_INTG"))) {
-            recur = symbolList.LookupSymbol(token.lexeme);
+            recur = token.symbolIndex;
             token = lex.GetNextToken();
         } else {
             error("<FLOAT> or <INTEGER>", token.lexeme);
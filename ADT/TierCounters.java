@@ -0,0 +1,106 @@
+/*
+ * Tier Counters: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: What a tiered run (Interpreter.Engine.TIERED) counted and decided, for tuning its
+ *          threshold. A tiered run starts on the switch interpreter and counts, for each quad, the
+ *          backward JMPs taken to it: the loop heads Syntactic.handleWhile emits. A loop head that
+ *          reaches the threshold has its loop (the head up to the JMP back to it) compiled with
+ *          QuadCompiler, and the run goes on inside the compiled loop from there.
+ */
+
+package ADT;
+
+/* --------------------------------
+ * ----- TIER COUNTERS CLASS  -----
+ * -------------------------------- */
+public class TierCounters {
+
+    // constants
+    static final int NOT_TRIED = 0, COMPILED = 1, REJECTED = 2;    // decision for a loop head
+
+    // elements
+    int threshold;          // backward jumps to a loop head before its loop is compiled
+    int[] backJumps;        // backward JMPs taken to each quad while interpreted
+    byte[] decision;        // NOT_TRIED, COMPILED or REJECTED, for each quad
+    int[] loopEnd;          // for a loop head that was tried, the quad after its loop
+    long interpreted;       // quads run by the interpreter
+    long entries;           // times the run went into compiled code
+    int compiled;           // loops compiled
+    int rejected;           // loops the compiler did not take (they stay interpreted)
+
+    // constructor - counters for a run of [quadCount] quads
+    TierCounters(int threshold, int quadCount) {
+        this.threshold = threshold;
+        backJumps = new int[quadCount];
+        decision = new byte[quadCount];
+        loopEnd = new int[quadCount];
+    }
+
+    // records the decision for the loop from [head] up to [end] (exclusive)
+    void decided(int head, int end, boolean ok) {
+        decision[head] = ok ? (byte) COMPILED : (byte) REJECTED;
+        loopEnd[head] = end;
+        if (ok) {
+            compiled++;
+        } else {
+            rejected++;
+        }
+    }
+
+    /* -----------------------------
+     * Counters
+     * -------------------------- */
+    public int GetThreshold() {
+        return threshold;
+    }
+
+    // backward JMPs taken to quad [pc] while it was interpreted
+    public int GetBackJumps(int pc) {
+        return backJumps[pc];
+    }
+
+    public long GetInterpreted() {
+        return interpreted;
+    }
+
+    public long GetEntries() {
+        return entries;
+    }
+
+    public int GetCompiled() {
+        return compiled;
+    }
+
+    public int GetRejected() {
+        return rejected;
+    }
+
+    // whether the loop headed by quad [pc] was compiled
+    public boolean IsCompiled(int pc) {
+        return decision[pc] == COMPILED;
+    }
+
+    // One line of totals, then a line for each loop head that was counted.
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("threshold ").append(threshold)
+                .append(", interpreted quads ").append(interpreted)
+                .append(", loops compiled ").append(compiled)
+                .append(", rejected ").append(rejected)
+                .append(", compiled entries ").append(entries);
+        for (int pc = 0; pc < backJumps.length; pc++) {
+            if (backJumps[pc] == 0) {
+                continue;
+            }
+            report.append(System.lineSeparator()).append("  loop head ").append(pc)
+                    .append(": back jumps ").append(backJumps[pc]);
+            if (decision[pc] == COMPILED) {
+                report.append(", compiled quads ").append(pc).append('-').append(loopEnd[pc] - 1);
+            } else if (decision[pc] == REJECTED) {
+                report.append(", not compiled (quads ").append(pc).append('-').append(loopEnd[pc] - 1).append(')');
+            }
+        }
+        return report.toString();
+    }
+}
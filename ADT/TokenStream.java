@@ -0,0 +1,135 @@
+/*
+ * Token Stream: Java Class File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: A whole source's tokens stored as parallel primitive arrays (code, start, length, a
+ *          packed line/column, value and symbol index), filled by Lexical.Tokenize. Walk it by index with no per-token objects;
+ *          lexemes are read back from the source and mnemonics looked up only when asked for.
+ */
+
+package ADT;
+
+import java.util.Arrays;
+
+/* --------------------------------
+ * ----- TOKEN STREAM CLASS  ------
+ * -------------------------------- */
+public class TokenStream {
+
+    // elements
+    int elementCount;
+    int[] codes;
+    int[] start;        // source position of the first lexeme char
+    int[] length;       // lexeme length, after truncation
+    long[] position;    // line in the high 32 bits, column in the low 32 bits
+    double[] values;    // value of INTEGER / FLOAT tokens (exact for every int), 0 otherwise
+    int[] symbols;      // symbol table index, -1 if not a symbol or lexed without a table
+    SourceBuffer source;
+    Lexical lex;
+
+    // constructor - lexer is only used for mnemonics, source for lexemes
+    public TokenStream(Lexical inputLex, SourceBuffer inputSource) {
+        lex = inputLex;
+        source = inputSource;
+        elementCount = 0;
+        codes = new int[1024];
+        start = new int[1024];
+        length = new int[1024];
+        position = new long[1024];
+        values = new double[1024];
+        symbols = new int[1024];
+    }
+
+    // appends a token, arrays double when full
+    public void Add(int code, int tokenStart, int tokenLength, int line, int column, double value, int symbol) {
+        if (elementCount == codes.length) {
+            grow(elementCount * 2);
+        }
+        codes[elementCount] = code;
+        start[elementCount] = tokenStart;
+        length[elementCount] = tokenLength;
+        position[elementCount] = ((long) line << 32) | (column & 0xFFFFFFFFL);
+        values[elementCount] = value;
+        symbols[elementCount] = symbol;
+        elementCount++;
+    }
+
+    // appends all of [other] (lexed from a slice of this source), shifting its start positions
+    // by [startOffset] and its lines by [lineOffset]
+    public void Append(TokenStream other, int startOffset, int lineOffset) {
+        int count = other.elementCount;
+        if (elementCount + count > codes.length) {
+            grow(Math.max(elementCount * 2, elementCount + count));
+        }
+        System.arraycopy(other.codes, 0, codes, elementCount, count);
+        System.arraycopy(other.length, 0, length, elementCount, count);
+        System.arraycopy(other.values, 0, values, elementCount, count);
+        System.arraycopy(other.symbols, 0, symbols, elementCount, count);
+        long lineShift = (long) lineOffset << 32;
+        for (int i = 0; i < count; i++) {
+            start[elementCount + i] = other.start[i] + startOffset;
+            position[elementCount + i] = other.position[i] + lineShift;
+        }
+        elementCount += count;
+    }
+
+    // resizes every column to [size]
+    private void grow(int size) {
+        codes = Arrays.copyOf(codes, size);
+        start = Arrays.copyOf(start, size);
+        length = Arrays.copyOf(length, size);
+        position = Arrays.copyOf(position, size);
+        values = Arrays.copyOf(values, size);
+        symbols = Arrays.copyOf(symbols, size);
+    }
+
+    // number of tokens
+    public int Count() {
+        return elementCount;
+    }
+
+    public int GetCode(int index) {
+        return codes[index];
+    }
+
+    public int GetStart(int index) {
+        return start[index];
+    }
+
+    public int GetLength(int index) {
+        return length[index];
+    }
+
+    public int GetLine(int index) {
+        return (int) (position[index] >>> 32);
+    }
+
+    public int GetColumn(int index) {
+        return (int) position[index];
+    }
+
+    // value of an INTEGER token
+    public int GetIntValue(int index) {
+        return (int) values[index];
+    }
+
+    // value of a FLOAT token
+    public double GetFloatValue(int index) {
+        return values[index];
+    }
+
+    // symbol table index of a token, -1 if none
+    public int GetSymbolIndex(int index) {
+        return symbols[index];
+    }
+
+    // lexeme of a token, copied out of the source on each call
+    public String GetLexeme(int index) {
+        return source.substring(start[index], start[index] + length[index]);
+    }
+
+    // mnemonic of a token, looked up on each call
+    public String GetMnemonic(int index) {
+        return lex.mnemonicFor(codes[index]);
+    }
+}
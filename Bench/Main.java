@@ -0,0 +1,712 @@
+/*
+ * Benchmarks: Main Test File
+ * Created by: Matthew Hileman
+ * Last Updated: 17 October 2026
+ * Purpose: Timing drivers for the compiler front end and interpreter. Run with the name of a
+ *          benchmark (see main) and optionally a source file; a generated program is used otherwise.
+ */
+
+package Bench;
+
+import ADT.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+public class Main {
+
+    public static void main(String[] args) throws Exception {
+        String which = (args.length > 0) ? args[0] : "lex";
+        String filePath = (args.length > 1) ? args[1] : generateProgram(200000);
+
+        switch (which) {
+            case "lex":
+                lexBench(filePath);
+                break;
+            case "stream":
+                streamBench(filePath);
+                break;
+            case "incremental":
+                incrementalBench(filePath);
+                break;
+            case "symbols":
+                symbolBench();
+                break;
+            case "memory":
+                memoryBench();
+                break;
+            case "scopes":
+                scopeBench();
+                break;
+            case "strings":
+                stringBench();
+                break;
+            case "compact":
+                compactBench();
+                break;
+            case "warmstart":
+                warmStartBench((args.length > 1) ? filePath : generateProgram(20000));
+                break;
+            case "dispatch":
+                dispatchBench();
+                break;
+            case "equivalence":
+                equivalenceBench();
+                break;
+            case "tiered":
+                tieredBench();
+                break;
+            case "concurrent":
+                concurrentBench((args.length > 1) ? filePath : generateProgram(1000));
+                break;
+            default:
+                System.out.println("Unknown benchmark: " + which);
+        }
+    }
+
+    // tokens per second for GetNextToken over the whole file, best of several runs
+    static void lexBench(String filePath) {
+        long tokens = 0;
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            Lexical lex = new Lexical(filePath, new SymbolTable(1000), false);
+            tokens = 0;
+            while (lex.GetNextToken() != null) {
+                tokens++;
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("lex: %d tokens, %.1f ms, %.0f tokens/s%n", tokens, best / 1e6, tokens / (best / 1e9));
+    }
+
+    // GetNextStreamToken over an in-memory copy of the file. The second pass reuses the symbol
+    // table, so every token is already known; it must allocate nothing per token.
+    static void streamBench(String filePath) throws IOException {
+        String text = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(filePath)), "ISO-8859-1");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        SymbolTable symbols = new SymbolTable(1000);
+
+        for (int run = 0; run < 5; run++) {
+            Lexical lex = new Lexical(new CharSequenceSource(text), symbols, false);
+            long tokens = 0;
+            long bytesBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            while (lex.GetNextStreamToken() != null) {
+                tokens++;
+            }
+            long time = System.nanoTime() - start;
+            long bytes = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+            System.out.printf("stream: %d tokens, %.1f ms, %.0f tokens/s, %d bytes allocated (%.3f per token)%n",
+                    tokens, time / 1e6, tokens / (time / 1e9), bytes, (double) bytes / tokens);
+            if ((run > 0) && (bytes > 1024)) {
+                System.out.println("FAIL: steady-state streaming lexer allocated " + bytes + " bytes");
+            }
+        }
+    }
+
+    // Empty and unterminated strings through every way of lexing: each must give the tokens after
+    // them too, not end the input. The incremental lexer also has the quote typed into a line.
+    static void stringBench() {
+        String[][] cases = {
+            {"a \"\nb c d\n", "_IDNT a | UNKWN  | _IDNT b | _IDNT c | _IDNT d"},
+            {"x := \"\";\ny := 1\n", "_IDNT x | _CEQA := | _STRN  | _SEMI ; | _IDNT y | _CEQA := | _INTG 1"},
+            {"s := \"ok\" \"\"\n\"", "_IDNT s | _CEQA := | _STRN ok | _STRN  | UNKWN "}
+        };
+        int failures = 0;
+        for (String[] test : cases) {
+            String text = test[0];
+            String expected = test[1];
+            java.util.List<String> results = new java.util.ArrayList<>();
+            java.util.List<String> ways = new java.util.ArrayList<>();
+
+            Lexical lex = Lexical.fromText(text, new SymbolTable(16), false);
+            StringBuilder tokens = new StringBuilder();
+            for (Lexical.token token = lex.GetNextToken(); token != null; token = lex.GetNextToken()) {
+                tokens.append(tokens.length() > 0 ? " | " : "").append(token.mnemonic).append(' ').append(token.lexeme);
+            }
+            ways.add("GetNextToken");
+            results.add(tokens.toString());
+
+            lex = Lexical.fromText(text, new SymbolTable(16), false);
+            tokens.setLength(0);
+            for (Lexical.StreamToken token = lex.GetNextStreamToken(); token != null; token = lex.GetNextStreamToken()) {
+                tokens.append(tokens.length() > 0 ? " | " : "").append(token.mnemonic()).append(' ').append(token.lexemeString());
+            }
+            ways.add("GetNextStreamToken");
+            results.add(tokens.toString());
+
+            ways.add("Tokenize");
+            results.add(streamText(Lexical.fromText(text, new SymbolTable(16), false).Tokenize()));
+            ways.add("ParallelLexer");
+            results.add(streamText(new ParallelLexer(new CharSequenceSource(text), new SymbolTable(16)).Tokenize(4)));
+
+            IncrementalLexer incremental = new IncrementalLexer(text);
+            ways.add("IncrementalLexer");
+            results.add(incrementalText(incremental));
+            // the first quote typed last, into text that had none there
+            int quote = text.indexOf('"');
+            incremental = new IncrementalLexer(text.substring(0, quote) + text.substring(quote + 1));
+            incremental.Edit(quote, 0, "\"");
+            ways.add("IncrementalLexer edit");
+            results.add(incrementalText(incremental));
+
+            for (int i = 0; i < ways.size(); i++) {
+                if (!results.get(i).equals(expected)) {
+                    failures++;
+                    System.out.println("FAIL: strings, " + ways.get(i) + " on " + text.replace("\n", "\\n")
+                            + " gave [" + results.get(i) + "], expected [" + expected + "]");
+                }
+            }
+        }
+        System.out.println("strings: " + cases.length + " inputs, " + failures + " failures");
+    }
+
+    static String streamText(TokenStream stream) {
+        StringBuilder tokens = new StringBuilder();
+        for (int i = 0; i < stream.Count(); i++) {
+            tokens.append(i > 0 ? " | " : "").append(stream.GetMnemonic(i)).append(' ').append(stream.GetLexeme(i));
+        }
+        return tokens.toString();
+    }
+
+    static String incrementalText(IncrementalLexer lexer) {
+        StringBuilder tokens = new StringBuilder();
+        for (int i = 0; i < lexer.Count(); i++) {
+            tokens.append(i > 0 ? " | " : "").append(lexer.GetMnemonic(i)).append(' ').append(lexer.GetLexeme(i));
+        }
+        return tokens.toString();
+    }
+
+    // Typing into the file: a few chars typed and then deleted again at a cursor that jumps to
+    // a random place every so often, each edit re-lexed by IncrementalLexer, against lexing the
+    // whole text once. Jumps cost the distance moved; the edits themselves should not grow with the file.
+    static void incrementalBench(String filePath) throws IOException {
+        String text = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(filePath)), "ISO-8859-1");
+        long start = System.nanoTime();
+        IncrementalLexer lexer = new IncrementalLexer(text);
+        long full = System.nanoTime() - start;
+
+        java.util.Random random = new java.util.Random(1);
+        int jumps = 200;
+        int edits = 0;
+        long relexed = 0;
+        long jumpTime = 0;
+        long time = 0;
+        for (int jump = 0; jump < jumps; jump++) {
+            int cursor = random.nextInt(text.length());
+            start = System.nanoTime();
+            lexer.Edit(cursor, 0, "");
+            jumpTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                lexer.Edit(cursor + i, 0, "x");
+                relexed += lexer.GetRelexCount();
+            }
+            for (int i = 49; i >= 0; i--) {
+                lexer.Edit(cursor + i, 1, "");
+                relexed += lexer.GetRelexCount();
+            }
+            time += System.nanoTime() - start;
+            edits += 100;
+        }
+        System.out.printf("incremental: %d tokens, full lex %.1f ms, %.2f us per edit, %.1f tokens re-lexed per edit, %.1f us per cursor jump%n",
+                lexer.Count(), full / 1e6, time / 1e3 / edits, (double) relexed / edits, jumpTime / 1e3 / jumps);
+    }
+
+    // AddSymbol then LookupSymbol (in another case) for a growing number of distinct names,
+    // the cost per name should stay flat as the table grows
+    static void symbolBench() {
+        for (int count = 1000; count <= 64000; count *= 4) {
+            long start = System.nanoTime();
+            SymbolTable symbols = new SymbolTable(count);
+            for (int i = 0; i < count; i++) {
+                symbols.AddSymbol("name" + i, 'V', i);
+            }
+            for (int i = 0; i < count; i++) {
+                if (symbols.LookupSymbol("NAME" + i) != i) {
+                    System.out.println("FAIL: lookup of NAME" + i);
+                }
+            }
+            long time = System.nanoTime() - start;
+            System.out.printf("symbols: %d names, %.1f ms, %.0f ns per add + lookup%n", count, time / 1e6, (double) time / count);
+        }
+    }
+
+    // Generated code nested [depth] scopes deep: each scope declares a few names (some hiding outer
+    // ones) and refers to names from every level out to the global scope, then all are popped.
+    // The cost per reference should not grow with the depth.
+    static void scopeBench() {
+        for (int depth = 10; depth <= 10000; depth *= 10) {
+            SymbolTable symbols = new SymbolTable(depth * 4);
+            String[] names = new String[depth];
+            for (int i = 0; i < depth; i++) {
+                names[i] = "level" + i;
+            }
+            long references = 0;
+            long start = System.nanoTime();
+            for (int level = 0; level < depth; level++) {
+                symbols.PushScope();
+                symbols.DeclareSymbol(names[level], 'V', level);
+                symbols.DeclareSymbol("i", 'V', 0);
+                symbols.DeclareSymbol("result", 'V', 0);
+                for (int i = 0; i < 100; i++) {
+                    references += symbols.LookupSymbol(names[(int) ((level * 31L + i * 7L) % (level + 1))]) >= 0 ? 1 : 0;
+                    references += symbols.LookupSymbol("RESULT") >= 0 ? 1 : 0;
+                }
+            }
+            while (symbols.ScopeDepth() > 0) {
+                symbols.PopScope();
+            }
+            long time = System.nanoTime() - start;
+            if ((references != depth * 200L) || (symbols.LookupSymbol("result") >= 0)) {
+                System.out.println("FAIL: scopes at depth " + depth);
+            }
+            System.out.printf("scopes: depth %d, %.1f ms, %.1f ns per reference%n",
+                    depth, time / 1e6, (double) time / references);
+        }
+    }
+
+    // Whole compiles (parse, tables written, program run) of the same source on 1, 8 and 32 threads
+    // at once, each compiler with private Strings and then all sharing one SharedInterner. Reports
+    // compiles per second, and for the shared runs how often two threads raced to add the same text.
+    static void concurrentBench(String filePath) throws Exception {
+        String text = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(filePath)), "ISO-8859-1");
+        java.io.File dir = java.nio.file.Files.createTempDirectory("bench").toFile();
+        int compiles = 256;
+        java.io.PrintStream console = System.out;
+        System.setOut(new java.io.PrintStream(new java.io.OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int offset, int length) {
+            }
+        }));
+        try {
+            compileAll(text, dir, 32, 8, null);     // warm up
+            for (boolean shared : new boolean[] {false, true}) {
+                for (int threads : new int[] {1, 8, 32}) {
+                    SharedInterner interner = shared ? new SharedInterner() : null;
+                    long start = System.nanoTime();
+                    compileAll(text, dir, compiles, threads, interner);
+                    long time = System.nanoTime() - start;
+                    console.printf("concurrent: %s, %d threads, %d compiles, %.1f ms, %.1f compiles/s%s%n",
+                            shared ? "shared" : "private", threads, compiles, time / 1e6, compiles / (time / 1e9),
+                            shared ? String.format(", %d texts, %d races", interner.Count(), interner.GetRaceCount()) : "");
+                }
+            }
+        } finally {
+            System.setOut(console);
+            for (java.io.File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    // [compiles] compiles of [text] spread over [threads] threads, output files in [dir]
+    static void compileAll(String text, java.io.File dir, int compiles, int threads, SharedInterner interner)
+            throws Exception {
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(threads);
+        java.util.List<java.util.concurrent.Future<?>> results = new java.util.ArrayList<>();
+        for (int i = 0; i < compiles; i++) {
+            String outputBase = new java.io.File(dir, "p" + i).getPath();
+            results.add(pool.submit(() -> {
+                try (Syntactic parser = new Syntactic(new CharSequenceSource(text), outputBase, false)) {
+                    if (interner != null) {
+                        parser.setInterner(interner);
+                    }
+                    parser.parse();
+                }
+                return null;
+            }));
+        }
+        for (java.util.concurrent.Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+    }
+
+    // Time to compile and run a program from source (the whole front end) against loading the
+    // program saved by that compile (ProgramFile) and running it, best of several runs each.
+    static void warmStartBench(String filePath) throws Exception {
+        String text = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(filePath)), "ISO-8859-1");
+        java.io.File dir = java.nio.file.Files.createTempDirectory("bench").toFile();
+        String outputBase = new java.io.File(dir, "p").getPath();
+        String saved = outputBase + ".qprg";
+        java.io.PrintStream console = System.out;
+        System.setOut(new java.io.PrintStream(new java.io.OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int offset, int length) {
+            }
+        }));
+        try {
+            long cold = Long.MAX_VALUE;
+            long warm = Long.MAX_VALUE;
+            long load = Long.MAX_VALUE;
+            int quads = 0;
+            for (int run = 0; run < 5; run++) {
+                long start = System.nanoTime();
+                try (Syntactic parser = new Syntactic(new CharSequenceSource(text), outputBase, false)) {
+                    parser.setProgramFile(saved);
+                    parser.parse();
+                }
+                cold = Math.min(cold, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                ProgramFile program = ProgramFile.Load(saved);
+                load = Math.min(load, System.nanoTime() - start);
+                new Interpreter().InterpretQuads(program, false, outputBase + "TRACE.txt");
+                warm = Math.min(warm, System.nanoTime() - start);
+                quads = program.Count();
+            }
+            console.printf("warmstart: %d quads, %d bytes saved%n", quads, new java.io.File(saved).length());
+            console.printf("warmstart: compile and run %.1f ms, load %.1f ms, load and run %.1f ms (%.0fx)%n",
+                    cold / 1e6, load / 1e6, warm / 1e6, (double) cold / warm);
+        } finally {
+            System.setOut(console);
+            for (java.io.File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    // Time per executed quad for the interpreter's own factorial and summation test programs, with n
+    // raised so a run takes long enough to time, on each engine. A plain harness (no JMH here): a
+    // few untimed runs to warm up, then the best and median of the timed ones.
+    static void dispatchBench() throws IOException {
+        String trace = java.io.File.createTempFile("bench", ".txt").getPath();
+        int n = 2000000;
+        for (String test : new String[] {"factorial", "summation"}) {
+            for (Interpreter.Engine engine : Interpreter.Engine.values()) {
+                long[] times = new long[15];
+                for (int run = -5; run < times.length; run++) {
+                    Interpreter interpreter = new Interpreter();
+                    interpreter.setEngine(engine);
+                    SymbolTable symbols = new SymbolTable(8);
+                    QuadTable quads = new QuadTable(16);
+                    if (test.equals("factorial")) {
+                        interpreter.initializeFactorialTest(symbols, quads);
+                    } else {
+                        interpreter.initializeSummationTest(symbols, quads);
+                    }
+                    symbols.UpdateSymbol(0, 'V', n);    // n is row 0 in both
+                    long start = System.nanoTime();
+                    interpreter.InterpretQuads(quads, symbols, false, trace);
+                    if (run >= 0) {
+                        times[run] = System.nanoTime() - start;
+                    }
+                }
+                java.util.Arrays.sort(times);
+                long executed = 5L * n + 1;     // 2 moves, n - 1 trips round the 5-quad loop, then SUB, JP, PRINT, STOP
+                System.out.printf("dispatch: %s, %s, n %d, best %.1f ms (%.2f ns per quad), median %.1f ms%n", test,
+                        engine, n, times[0] / 1e6, (double) times[0] / executed, times[times.length / 2] / 1e6);
+            }
+        }
+        new java.io.File(trace).delete();
+    }
+
+    // Size of the compact quad encoding against the packed table, for a million quads shaped like
+    // generated code (three-operand math on a few hundred symbols, moves, prints, branches to quads
+    // anywhere in the program), then the time to run a counting loop from each.
+    static void compactBench() throws IOException {
+        java.util.Random random = new java.util.Random(1);
+        int count = 1 << 20;
+        QuadTable quads = new QuadTable(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(20);
+            if (kind < 8) {
+                quads.AddQuad(1 + random.nextInt(4), random.nextInt(300), random.nextInt(300), random.nextInt(300));
+            } else if (kind < 12) {
+                quads.AddQuad(5, random.nextInt(300), 0, random.nextInt(300));
+            } else if (kind < 14) {
+                quads.AddQuad(6, 0, 0, random.nextInt(300));
+            } else if (kind < 17) {
+                quads.AddQuad(9 + random.nextInt(6), random.nextInt(300), 0, random.nextInt(count));
+            } else {
+                quads.AddQuad(8, 0, 0, random.nextInt(count));
+            }
+        }
+        CompactQuads compact = new CompactQuads(quads);
+        System.out.printf("compact: %d quads, packed %.1f bytes per quad, compact %.2f bytes per quad (%.0f%%)%n",
+                count, 16.0, (double) compact.Size() / count, 100.0 * compact.Size() / (16.0 * count));
+
+        // n := 3000000; sum := 0; i := 1; loop: t := i - n; JP t done; sum := sum + i; i := i + 1; JMP loop; done: STOP
+        SymbolTable symbols = new SymbolTable(8);
+        int n = symbols.AddSymbol("n", 'V', 3000000);
+        int i = symbols.AddSymbol("i", 'V', 1);
+        int sum = symbols.AddSymbol("sum", 'V', 0);
+        int t = symbols.AddSymbol("t", 'V', 0);
+        int one = symbols.AddConstant(1);
+        Interpreter interpreter = new Interpreter();
+        QuadTable loop = new QuadTable(8);     // opcodes as in Interpreter.initReserve
+        loop.AddQuad(3, i, n, t);               // SUB
+        loop.AddQuad(10, t, 0, 5);              // JP
+        loop.AddQuad(4, sum, i, sum);           // ADD
+        loop.AddQuad(4, i, one, i);             // ADD
+        loop.AddQuad(8, 0, 0, 0);               // JMP
+        loop.AddQuad(0, 0, 0, 0);               // STOP
+        CompactQuads compactLoop = new CompactQuads(loop);
+        String trace = java.io.File.createTempFile("bench", ".txt").getPath();
+        for (int run = 0; run < 3; run++) {
+            for (boolean useCompact : new boolean[] {false, true}) {
+                symbols.UpdateSymbol(i, 'V', 1);
+                symbols.UpdateSymbol(sum, 'V', 0);
+                long start = System.nanoTime();
+                if (useCompact) {
+                    interpreter.InterpretQuads(compactLoop, symbols, false, trace);
+                } else {
+                    interpreter.InterpretQuads(loop, symbols, false, trace);
+                }
+                long time = System.nanoTime() - start;
+                System.out.printf("compact: %s loop, %.1f ms, %.1f ns per quad, sum %d%n", useCompact ? "compact" : "packed",
+                        time / 1e6, time / (5.0 * 3000000), symbols.GetInteger(sum));
+            }
+        }
+        new java.io.File(trace).delete();
+    }
+
+    // Short scripts against hot loops on the switch, the whole-program compiler and tiered runs: the
+    // summation test with a small n, run many times (each run pays for its own compile), then with a
+    // large n. The tiered run's counters are printed after each.
+    static void tieredBench() throws IOException {
+        String trace = java.io.File.createTempFile("bench", ".txt").getPath();
+        java.io.PrintStream console = System.out;
+        int[][] shapes = {{10, 2000}, {2000000, 15}};     // n, runs
+        try {
+            for (int[] shape : shapes) {
+                int n = shape[0];
+                for (Interpreter.Engine engine : new Interpreter.Engine[] {Interpreter.Engine.SWITCH,
+                        Interpreter.Engine.JIT, Interpreter.Engine.TIERED}) {
+                    Interpreter interpreter = new Interpreter();
+                    interpreter.setEngine(engine);
+                    long[] times = new long[shape[1]];
+                    for (int run = -5; run < times.length; run++) {
+                        SymbolTable symbols = new SymbolTable(8);
+                        QuadTable quads = new QuadTable(16);
+                        interpreter.initializeSummationTest(symbols, quads);
+                        symbols.UpdateSymbol(0, 'V', n);    // n is row 0
+                        System.setOut(new java.io.PrintStream(new java.io.ByteArrayOutputStream()));
+                        long start = System.nanoTime();
+                        interpreter.InterpretQuads(quads, symbols, false, trace);
+                        long time = System.nanoTime() - start;
+                        System.setOut(console);
+                        if (run >= 0) {
+                            times[run] = time;
+                        }
+                    }
+                    java.util.Arrays.sort(times);
+                    System.out.printf("tiered: n %d, %s, best %.1f us, median %.1f us%n", n, engine,
+                            times[0] / 1e3, times[times.length / 2] / 1e3);
+                    if (engine == Interpreter.Engine.TIERED) {
+                        System.out.println("tiered: " + interpreter.getTierCounters());
+                    }
+                }
+            }
+        } finally {
+            System.setOut(console);
+            new java.io.File(trace).delete();
+        }
+    }
+
+    // Equivalence of the engines: random quad programs (arithmetic, moves, prints, forward branches,
+    // JINDR, including to negative quad numbers, and counted loops) are run on every engine and the console output, trace file and final
+    // symbol table compared with the switch interpreter's. Half the runs are traced. Tiered runs
+    // compile a loop the first time it jumps back, so they go into compiled code mid-loop.
+    static void equivalenceBench() throws IOException {
+        String trace = java.io.File.createTempFile("bench", ".txt").getPath();
+        String table = java.io.File.createTempFile("bench", ".txt").getPath();
+        java.io.PrintStream console = System.out;
+        int programs = 400;
+        int mismatches = 0;
+        try {
+            for (int seed = 0; seed < programs; seed++) {
+                boolean traced = (seed % 2) == 1;
+                String expected = null;
+                for (Interpreter.Engine engine : Interpreter.Engine.values()) {
+                    SymbolTable symbols = new SymbolTable(16);
+                    QuadTable quads = new QuadTable(64);
+                    randomProgram(new java.util.Random(seed), symbols, quads);
+                    java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+                    System.setOut(new java.io.PrintStream(output, true, "UTF-8"));
+                    Interpreter interpreter = new Interpreter();
+                    interpreter.setEngine(engine);
+                    interpreter.setTierThreshold(1);
+                    interpreter.InterpretQuads(quads, symbols, traced, trace);
+                    StringBuilder result = new StringBuilder(output.toString("UTF-8"));
+                    if (traced) {
+                        result.append(new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(trace)), "UTF-8"));
+                    }
+                    symbols.PrintSymbolTable(table);
+                    result.append(new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(table)), "UTF-8"));
+                    if (expected == null) {
+                        expected = result.toString();
+                    } else if (!expected.equals(result.toString())) {
+                        mismatches++;
+                        console.println("equivalence: program " + seed + " differs on " + engine);
+                    }
+                }
+            }
+        } finally {
+            System.setOut(console);
+            new java.io.File(trace).delete();
+            new java.io.File(table).delete();
+        }
+        System.out.printf("equivalence: %d programs on %d engines, %d mismatches%n", programs,
+                Interpreter.Engine.values().length, mismatches);
+    }
+
+    // A random program that always ends: branches only go forward, except the one at the end of a
+    // counted loop, and nothing inside a loop branches but its test.
+    static void randomProgram(java.util.Random random, SymbolTable symbols, QuadTable quads) {
+        int[] variables = new int[6];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = symbols.AddSymbol("v" + i, 'V', random.nextInt(41) - 20);
+        }
+        int counter = symbols.AddSymbol("count", 'V', 0);
+        int[] constants = {symbols.AddConstant(1), symbols.AddConstant(2), symbols.AddConstant(3),
+                symbols.AddConstant(-1), symbols.AddConstant(7), symbols.AddConstant(0)};
+        int text = symbols.AddConstant("text");
+        int statements = 5 + random.nextInt(30);
+        for (int i = 0; i < statements; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 5) {
+                randomArithmetic(random, quads, variables, constants);
+            } else if (kind == 5) {
+                quads.AddQuad(6, 0, 0, random.nextBoolean() ? text : variables[random.nextInt(variables.length)]);
+            } else if (kind == 6) {
+                // forward branch (possibly past the end), opcode JMP .. JNN
+                int opcode = 8 + random.nextInt(7);
+                quads.AddQuad(opcode, variables[random.nextInt(variables.length)], 0, quads.NextQuad() + 1 + random.nextInt(6));
+            } else if (kind == 7) {
+                // JINDR over the next quad, now and then to a quad before the first (which ends the run)
+                int target = symbols.AddConstant((random.nextInt(8) == 0) ? -1 - random.nextInt(3) : quads.NextQuad() + 2);
+                quads.AddQuad(15, 0, 0, target);
+                randomArithmetic(random, quads, variables, constants);
+            } else if (kind == 8) {
+                // count := 1..3; while count > 0 do (arithmetic; count := count - 1), as Syntactic emits a while
+                quads.AddQuad(5, constants[random.nextInt(3)], 0, counter);
+                int head = quads.NextQuad();
+                quads.AddQuad(13, counter, 0, 0);   // JNP, to after the loop
+                for (int j = random.nextInt(4); j >= 0; j--) {
+                    randomArithmetic(random, quads, variables, constants);
+                }
+                quads.AddQuad(3, counter, constants[0], counter);
+                quads.AddQuad(8, 0, 0, head);
+                quads.setQuadOp3(head, quads.NextQuad());
+            } else {
+                // count := 1..5 times round a body of arithmetic
+                quads.AddQuad(5, constants[random.nextInt(3)], 0, counter);
+                int head = quads.NextQuad();
+                for (int j = random.nextInt(4); j >= 0; j--) {
+                    randomArithmetic(random, quads, variables, constants);
+                }
+                quads.AddQuad(3, counter, constants[0], counter);
+                quads.AddQuad(10, counter, 0, head);
+            }
+        }
+        if (random.nextInt(4) != 0) {
+            quads.AddQuad(0, 0, 0, 0);      // otherwise it runs off the end
+        }
+        // forward targets past the last quad become the end of the program
+        for (int pc = 0; pc < quads.NextQuad(); pc++) {
+            if ((quads.GetQuad(pc, 0) >= 8) && (quads.GetQuad(pc, 0) <= 14) && (quads.GetQuad(pc, 3) > quads.NextQuad())) {
+                quads.setQuadOp3(pc, quads.NextQuad());
+            }
+        }
+    }
+
+    // ADD, SUB, MUL or MOV between variables and constants, or DIV by a constant that is not 0
+    static void randomArithmetic(java.util.Random random, QuadTable quads, int[] variables, int[] constants) {
+        int opcode = 1 + random.nextInt(5);
+        int op1 = random.nextBoolean() ? variables[random.nextInt(variables.length)] : constants[random.nextInt(constants.length)];
+        int op2 = (opcode == 1) ? constants[random.nextInt(5)]
+                : random.nextBoolean() ? variables[random.nextInt(variables.length)] : constants[random.nextInt(constants.length)];
+        quads.AddQuad(opcode, op1, (opcode == 5) ? 0 : op2, variables[random.nextInt(variables.length)]);
+    }
+
+    // Heap held by a symbol table per row, names not counted (they are made before measuring and
+    // belong to the caller). Covers the rows and the name index, a third each int, float and string.
+    // Then the heap held by a quad table per quad.
+    static void memoryBench() {
+        int count = 1 << 20;
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "name" + i;
+        }
+        long before = usedHeap();
+        SymbolTable symbols = new SymbolTable(count);
+        for (int i = 0; i < count; i++) {
+            switch (i % 3) {
+                case 0:
+                    symbols.AddSymbol(names[i], 'V', i);
+                    break;
+                case 1:
+                    symbols.UpdateSymbol(symbols.AddSymbol(names[i], 'C', 0), 'C', (double) i);    // AddSymbol(float) prints each value
+                    break;
+                default:
+                    symbols.AddSymbol(names[i], 'C', names[i]);
+            }
+        }
+        long bytes = usedHeap() - before;
+        System.out.printf("memory: %d symbols, %.1f MB, %.1f bytes per symbol%n",
+                count, bytes / 1e6, (double) bytes / count);
+        if (symbols.LookupSymbol(names[count - 1]) != count - 1) {
+            System.out.println("FAIL: lookup of the last name");
+        }
+
+        // and per quad
+        symbols = null;
+        names = null;
+        before = usedHeap();
+        QuadTable quads = new QuadTable(count);
+        for (int i = 0; i < count; i++) {
+            quads.AddQuad(i % 16, i, i + 1, i + 2);
+        }
+        bytes = usedHeap() - before;
+        System.out.printf("memory: %d quads, %.1f MB, %.1f bytes per quad%n",
+                count, bytes / 1e6, (double) bytes / count);
+        if (quads.GetQuad(count - 1, 3) != count + 1) {
+            System.out.println("FAIL: last quad");
+        }
+    }
+
+    // heap in use after letting the collector settle
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if ((now >= used) && (i >= 3)) {
+                return Math.min(now, used);
+            }
+            used = Math.min(now, used);
+        }
+        return used;
+    }
+
+    // writes a program of [statements] statements to a temp file, reusing a small set of names
+    // so the symbol table stays small and the timings are about scanning
+    static String generateProgram(int statements) throws IOException {
+        java.io.File file = java.io.File.createTempFile("bench", ".txt");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            writer.println("PROGRAM bench;");
+            writer.println("BEGIN");
+            writer.println("total := 0; count := 1;");
+            for (int i = 0; i < statements; i++) {
+                int v = i % 50;
+                writer.println("{ statement " + i + " } value" + v + " := (count * 3 + " + v + ") - total / 2;");
+                writer.println("(* compare *) IF value" + v + " >= 1250 THEN total := total + 1 ELSE PRINTLN(\"small value\");");
+            }
+            writer.println("PRINTLN(total)");
+            writer.println("END.");
+        }
+        return file.getAbsolutePath();
+    }
+}